@@ -0,0 +1,56 @@
+package com.flappyduo;
+
+import java.awt.*;
+import java.awt.image.BufferStrategy;
+import java.util.function.Consumer;
+
+/**
+ * Heavyweight canvas rendered actively from the render loop through a page-flipping
+ * BufferStrategy, bypassing repaint() coalescing and Swing's back-buffer copy.
+ */
+public class ActiveRenderCanvas extends Canvas {
+
+    private final int buffers;
+    private final Consumer<Graphics2D> painter;
+    private volatile BufferStrategy strategy;
+
+    public ActiveRenderCanvas(int buffers, Consumer<Graphics2D> painter) {
+        if (buffers < 2 || buffers > 3) throw new IllegalArgumentException("buffers must be 2 or 3: " + buffers);
+        this.buffers = buffers;
+        this.painter = painter;
+        setIgnoreRepaint(true); // We paint ourselves; ignore OS paint requests
+    }
+
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        createBufferStrategy(buffers);
+        strategy = getBufferStrategy();
+    }
+
+    @Override
+    public void removeNotify() {
+        strategy = null;
+        super.removeNotify();
+    }
+
+    // Draws and presents one frame; call from the render loop thread
+    public void renderFrame() {
+        BufferStrategy bs = strategy;
+        if (bs == null) return; // Not on screen yet
+
+        do {
+            do {
+                Graphics2D g2d = (Graphics2D) bs.getDrawGraphics();
+                try {
+                    painter.accept(g2d);
+                } finally {
+                    g2d.dispose();
+                }
+            } while (bs.contentsRestored()); // Buffer was restored mid-frame; draw it again
+            bs.show();
+        } while (bs.contentsLost());
+
+        Toolkit.getDefaultToolkit().sync(); // Flush the pipeline so the frame goes out now, not later
+    }
+}
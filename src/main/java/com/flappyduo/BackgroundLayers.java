@@ -0,0 +1,139 @@
+package com.flappyduo;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.VolatileImage;
+import java.util.Random;
+
+/**
+ * Sky, star field and skyline rendered once into images and blitted with
+ * wrap-around offsets each frame. Masters live in BufferedImages; accelerated
+ * VolatileImage copies are made per device and restored if their contents are lost.
+ */
+public class BackgroundLayers {
+
+    private static final int WIDTH = GameEngine.WIDTH;
+    private static final int HEIGHT = GameEngine.HEIGHT;
+
+    private static final int BUILDING_SPACING = 50;
+    private static final int SKYLINE_PERIOD = WIDTH + 50; // Buildings repeat every 850px of scroll
+    private static final int SKYLINE_HEIGHT = 200;        // Tallest building is 199px
+
+    private final Layer sky;
+    private final Layer stars;
+    private final Layer skyline;
+
+    public BackgroundLayers() {
+        sky = new Layer(renderSky(), Transparency.OPAQUE);
+        stars = new Layer(renderStars(), Transparency.BITMASK);
+        skyline = new Layer(renderSkyline(), Transparency.BITMASK);
+    }
+
+    public void draw(Graphics2D g2d, int bgScrollX) {
+        GraphicsConfiguration gc = g2d.getDeviceConfiguration();
+
+        g2d.drawImage(sky.get(gc), 0, 0, null);
+
+        // Stars drift at half speed
+        int starOffset = Math.floorMod(bgScrollX / 2, WIDTH);
+        Image starImage = stars.get(gc);
+        g2d.drawImage(starImage, -starOffset, 0, null);
+        g2d.drawImage(starImage, WIDTH - starOffset, 0, null);
+
+        int skylineOffset = Math.floorMod(bgScrollX, SKYLINE_PERIOD);
+        Image skylineImage = skyline.get(gc);
+        g2d.drawImage(skylineImage, -skylineOffset, HEIGHT - SKYLINE_HEIGHT, null);
+        g2d.drawImage(skylineImage, SKYLINE_PERIOD - skylineOffset, HEIGHT - SKYLINE_HEIGHT, null);
+    }
+
+    private static BufferedImage renderSky() {
+        BufferedImage img = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2d = img.createGraphics();
+        // Gradient sky
+        g2d.setPaint(new GradientPaint(0, 0, new Color(10, 10, 20), 0, HEIGHT, new Color(30, 20, 40)));
+        g2d.fillRect(0, 0, WIDTH, HEIGHT);
+        g2d.dispose();
+        return img;
+    }
+
+    private static BufferedImage renderStars() {
+        BufferedImage img = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g2d = img.createGraphics();
+        g2d.setColor(Color.WHITE);
+        Random random = new Random();
+        for (int i = 0; i < 100; i++) {
+            int x = random.nextInt(WIDTH);
+            int y = random.nextInt(HEIGHT);
+            g2d.fillRect(x, y, 2, 2);
+            if (x > WIDTH - 2) g2d.fillRect(x - WIDTH, y, 2, 2); // Keep stars whole across the seam
+        }
+        g2d.dispose();
+        return img;
+    }
+
+    // One full scroll period of the procedural cityscape; buildings crossing the seam are drawn on both sides
+    private static BufferedImage renderSkyline() {
+        BufferedImage img = new BufferedImage(SKYLINE_PERIOD, SKYLINE_HEIGHT, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g2d = img.createGraphics();
+        g2d.translate(0, SKYLINE_HEIGHT);
+        for (int i = 0; i < WIDTH / BUILDING_SPACING + 2; i++) {
+            int h = Math.abs((i * 137) % 150) + 50;
+            int x = (i * BUILDING_SPACING) % SKYLINE_PERIOD;
+            drawBuilding(g2d, x, h);
+            drawBuilding(g2d, x - SKYLINE_PERIOD, h);
+        }
+        g2d.dispose();
+        return img;
+    }
+
+    private static void drawBuilding(Graphics2D g2d, int x, int h) {
+        g2d.setColor(new Color(10, 10, 15));
+        g2d.fillRect(x, -h, 52, h);
+
+        // Windows
+        if (h > 100) {
+            g2d.setColor(new Color(255, 255, 0, 50));
+            g2d.fillRect(x + 10, -h + 20, 10, 10);
+            g2d.fillRect(x + 30, -h + 50, 10, 10);
+        }
+    }
+
+    // A pre-rendered master plus its accelerated copy for the current device
+    private static class Layer {
+        private final BufferedImage master;
+        private final int transparency;
+        private VolatileImage accelerated;
+        private boolean volatileSupported = true;
+
+        Layer(BufferedImage master, int transparency) {
+            this.master = master;
+            this.transparency = transparency;
+        }
+
+        Image get(GraphicsConfiguration gc) {
+            if (!volatileSupported || gc == null) return master;
+
+            int state = accelerated != null ? accelerated.validate(gc) : VolatileImage.IMAGE_INCOMPATIBLE;
+            if (state == VolatileImage.IMAGE_INCOMPATIBLE) {
+                if (accelerated != null) accelerated.flush();
+                try {
+                    accelerated = gc.createCompatibleVolatileImage(master.getWidth(), master.getHeight(), transparency);
+                } catch (RuntimeException e) {
+                    accelerated = null;
+                }
+                if (accelerated == null) {
+                    volatileSupported = false; // Fall back to the managed BufferedImage
+                    return master;
+                }
+                state = VolatileImage.IMAGE_RESTORED;
+            }
+            if (state == VolatileImage.IMAGE_RESTORED) {
+                Graphics2D g2d = accelerated.createGraphics();
+                g2d.setComposite(AlphaComposite.Src);
+                g2d.drawImage(master, 0, 0, null);
+                g2d.dispose();
+            }
+            return accelerated.contentsLost() ? master : accelerated;
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.flappyduo;
+
+/**
+ * Decides whether a bird jumps this tick. Used to drive bots in headless games;
+ * physics constants are in {@link Flock} for controllers that plan ahead.
+ */
+public interface BirdController {
+
+    boolean shouldJump(Observation observation);
+}
@@ -0,0 +1,84 @@
+package com.flappyduo;
+
+/**
+ * Allocation-free collision tests between birds and pipes. Boxes use the same
+ * strict edges as {@link java.awt.Rectangle#intersects}, so touching edges do not
+ * count. Swept tests look at the whole move between two ticks, so nothing can
+ * skip through a pipe edge however fast the pipes or the bird move.
+ */
+public final class Collisions {
+
+    // Height of the bottom pipe's box; large enough to reach past the floor
+    static final int BOTTOM_PIPE_HEIGHT = 2000;
+
+    private Collisions() {
+    }
+
+    // Same test as Rectangle.intersects
+    public static boolean intersects(int ax, int ay, int aw, int ah, int bx, int by, int bw, int bh) {
+        return ax < bx + bw && bx < ax + aw && ay < by + bh && by < ay + ah;
+    }
+
+    /**
+     * Whether a w x h box moving linearly from (x0, y0) by (dx, dy) during one
+     * tick overlaps the fixed rect (rx, ry, rw, rh) at any point of the move.
+     */
+    public static boolean sweptIntersects(int x0, int y0, int dx, int dy, int w, int h,
+                                          int rx, int ry, int rw, int rh) {
+        // Overlap on an axis is an open interval of t; intersect both with [0, 1]
+        double enter = 0;
+        double exit = 1;
+
+        if (dx == 0) {
+            if (x0 <= rx - w || x0 >= rx + rw) return false;
+        } else {
+            double t0 = (double) (rx - w - x0) / dx;
+            double t1 = (double) (rx + rw - x0) / dx;
+            enter = Math.max(enter, Math.min(t0, t1));
+            exit = Math.min(exit, Math.max(t0, t1));
+        }
+
+        if (dy == 0) {
+            if (y0 <= ry - h || y0 >= ry + rh) return false;
+        } else {
+            double t0 = (double) (ry - h - y0) / dy;
+            double t1 = (double) (ry + rh - y0) / dy;
+            enter = Math.max(enter, Math.min(t0, t1));
+            exit = Math.min(exit, Math.max(t0, t1));
+        }
+
+        return enter < exit;
+    }
+
+    /**
+     * Swept test of a square bird against both halves of a pipe. The bird's x is
+     * fixed and it moved from prevY to y; the pipe moved from its previous x to
+     * its current one. Works in the pipe's frame, where the bird also slides right.
+     */
+    public static boolean hitsPipe(Pipe pipe, int bx, int prevY, int y, int size) {
+        int px = pipe.getX();
+        int moved = pipe.getPrevX() - px;
+        int x0 = bx - moved;
+        int dy = y - prevY;
+        int gapY = pipe.getGapY();
+        int bottomY = gapY + Pipe.GAP_HEIGHT;
+
+        return sweptIntersects(x0, prevY, moved, dy, size, size, px, 0, Pipe.WIDTH, gapY)
+                || sweptIntersects(x0, prevY, moved, dy, size, size, px, bottomY, Pipe.WIDTH, BOTTOM_PIPE_HEIGHT);
+    }
+
+    /**
+     * Broadphase over pipes sorted by x: index of the first pipe whose swept span
+     * this tick reaches past {@code left}. Callers walk on from there until a pipe
+     * starts at or beyond the right edge of the birds' column.
+     */
+    public static int firstCandidate(PipeRing pipes, int left) {
+        int i = 0;
+        while (i < pipes.size()) {
+            Pipe pipe = pipes.get(i);
+            if (Math.max(pipe.getX(), pipe.getPrevX()) + Pipe.WIDTH > left) break;
+            i++;
+        }
+        return i;
+    }
+}
@@ -0,0 +1,225 @@
+package com.flappyduo;
+
+import java.lang.ref.WeakReference;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Everything about a round that doesn't depend on the players: when each pipe
+ * spawns, where its gap is, and how fast the pipes move. All of it follows
+ * from the seed, so a course can be shared by name or seed and replayed
+ * exactly, and {@link #hash(int)} lets a leaderboard check that a result was
+ * played on the real course.
+ *
+ * <p>Pipes are generated in order into an append-only buffer. A shared
+ * background thread fills the first {@value #LOOKAHEAD} when the course is
+ * made and tops every live course up ten times a second, so a tick only reads
+ * the next entry and notes how far it got. Ticks never wake that thread: the
+ * hand-off would cost more than generating a pipe. If a game outruns it (a
+ * benchmark, say), the reader generates the missing entries itself; they come
+ * out the same either way. Headless engines play too many short rounds for the
+ * hand-off to pay, so they use an {@link #inline(long) inline} course that
+ * only its reader ever generates.
+ */
+public class Course {
+
+    static final int LOOKAHEAD = 64; // About 50 s of pipes at the densest spacing
+    private static final int INITIAL_PIPE_SPEED = 5;
+    private static final int MAX_PIPE_SPEED = 12;
+    private static final int INITIAL_SPAWN_INTERVAL = 100; // Ticks
+    private static final int MIN_SPAWN_INTERVAL = 40;
+    private static final int STAGE_TICKS = 500; // Pipes speed up and close ranks every 10 s at 50 Hz
+
+    private static final long TOP_UP_MILLIS = 100;
+
+    private static final ScheduledExecutorService FILLER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "flappyduo-course");
+        t.setDaemon(true);
+        return t;
+    });
+    // Courses still in use; ones nobody holds any more drop out by themselves
+    private static final Queue<WeakReference<Course>> LIVE = new ConcurrentLinkedQueue<>();
+
+    static {
+        FILLER.scheduleWithFixedDelay(Course::topUp, TOP_UP_MILLIS, TOP_UP_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    private long seed; // Only an inline course's owner changes it
+    private final String name; // Null for a course known only by its seed
+    private final boolean background; // Topped up by the shared thread; false for inline courses
+
+    // Written under the lock; published to readers by the volatile count
+    private final FastRandom random;
+    private int lastSpawnTick;
+    private volatile int[] spawnTicks = new int[LOOKAHEAD * 2];
+    private volatile int[] gapYs = new int[LOOKAHEAD * 2];
+    private volatile int generated;
+
+    private volatile int wanted = LOOKAHEAD; // Entries the background thread should have ready
+    private volatile int generatedInline; // Entries a reader had to generate itself
+
+    private Course(long seed, String name, boolean background) {
+        this.seed = seed;
+        this.name = name;
+        this.background = background;
+        this.random = new FastRandom(seed);
+    }
+
+    // Course for a seed; starts filling its lookahead in the background
+    public static Course of(long seed) {
+        return register(new Course(seed, null, true));
+    }
+
+    // The same name always gives the same course
+    public static Course named(String name) {
+        return register(new Course(seedOf(name), name, true));
+    }
+
+    // Course for a seed that generates pipes only as they're read; nothing is registered or queued
+    static Course inline(long seed) {
+        return new Course(seed, null, false);
+    }
+
+    private static Course register(Course c) {
+        LIVE.add(new WeakReference<>(c));
+        FILLER.execute(() -> c.generate(c.wanted));
+        return c;
+    }
+
+    // 64-bit FNV-1a of the name's UTF-8 bytes
+    static long seedOf(String name) {
+        long h = 0xCBF29CE484222325L;
+        for (byte b : name.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b & 0xFF;
+            h *= 0x100000001B3L;
+        }
+        return h;
+    }
+
+    // Tick (counted from 1) on which the given pipe spawns at the right edge
+    public int spawnTick(int pipe) {
+        ensure(pipe);
+        return spawnTicks[pipe];
+    }
+
+    public int gapY(int pipe) {
+        ensure(pipe);
+        return gapYs[pipe];
+    }
+
+    // Pixels per tick the pipes move on the given tick
+    public int speedAt(int tick) {
+        return Math.min(MAX_PIPE_SPEED, INITIAL_PIPE_SPEED + tick / STAGE_TICKS);
+    }
+
+    // Ticks between spawns on the given tick; a pipe spawns whenever the tick is a multiple of it
+    public int spawnIntervalAt(int tick) {
+        return Math.max(MIN_SPAWN_INTERVAL, INITIAL_SPAWN_INTERVAL - 5 * (tick / STAGE_TICKS));
+    }
+
+    /**
+     * Hash of the seed and every pipe that spawns in the first {@code ticks}
+     * ticks. Two results with the same seed and length were played on the same
+     * course exactly when their hashes match.
+     */
+    public long hash(int ticks) {
+        long h = 1125899906842597L;
+        h = 31 * h + seed;
+        h = 31 * h + ticks;
+        for (int i = 0; spawnTick(i) <= ticks; i++) {
+            h = 31 * h + spawnTicks[i];
+            h = 31 * h + gapYs[i];
+        }
+        return h;
+    }
+
+    private void ensure(int pipe) {
+        int ready = generated;
+        if (pipe >= ready) {
+            generatedInline += pipe + 1 - ready;
+            generate(pipe + 1); // Background fell behind
+        }
+        if (pipe + LOOKAHEAD > wanted) wanted = pipe + LOOKAHEAD; // Picked up by the next top-up
+    }
+
+    // Makes an inline course the one for another seed, keeping its buffers; owner thread only
+    synchronized void reseed(long seed) {
+        if (background) throw new IllegalStateException("Only inline courses can be reseeded");
+        this.seed = seed;
+        random.setSeed(seed);
+        lastSpawnTick = 0;
+        generated = 0;
+        wanted = LOOKAHEAD;
+        generatedInline = 0;
+    }
+
+    // Background thread: brings every live course up to what its reader wants
+    private static void topUp() {
+        for (Iterator<WeakReference<Course>> it = LIVE.iterator(); it.hasNext(); ) {
+            Course c = it.next().get();
+            if (c == null) {
+                it.remove();
+            } else if (c.generated < c.wanted) {
+                c.generate(c.wanted);
+            }
+        }
+    }
+
+    // Same generator as the original inline spawning, so seeds keep their courses
+    private synchronized void generate(int count) {
+        int n = generated;
+        if (n >= count) return;
+        int[] ticks = spawnTicks;
+        int[] gaps = gapYs;
+        if (ticks.length < count) {
+            int cap = Math.max(count, ticks.length * 2);
+            ticks = Arrays.copyOf(ticks, cap);
+            gaps = Arrays.copyOf(gaps, cap);
+        }
+        for (; n < count; n++) {
+            lastSpawnTick = nextSpawnAfter(lastSpawnTick);
+            ticks[n] = lastSpawnTick;
+            gaps[n] = random.nextInt(GameEngine.HEIGHT - 250) + 50;
+        }
+        spawnTicks = ticks;
+        gapYs = gaps;
+        generated = n; // Last, so readers see the entries and arrays with it
+    }
+
+    // First tick after the given one that is a multiple of its own spawn interval
+    private int nextSpawnAfter(int tick) {
+        int t = tick + 1;
+        while (true) {
+            int interval = spawnIntervalAt(t);
+            int candidate = (t + interval - 1) / interval * interval;
+            int stageEnd = (t / STAGE_TICKS + 1) * STAGE_TICKS; // The interval changes here
+            if (candidate < stageEnd) return candidate;
+            t = stageEnd;
+        }
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    // Name the course was made from, or null
+    public String getName() {
+        return name;
+    }
+
+    // How many entries readers had to generate because the lookahead ran dry
+    public int getGeneratedInline() {
+        return generatedInline;
+    }
+
+    @Override
+    public String toString() {
+        return name != null ? name : String.format("%016x", seed);
+    }
+}
@@ -0,0 +1,51 @@
+package com.flappyduo;
+
+/**
+ * Small seeded xorshift64* generator. Cheaper than java.util.Random on the hot
+ * path, allocation-free, and its whole state is one long.
+ */
+public class FastRandom {
+
+    private long state;
+
+    public FastRandom(long seed) {
+        setSeed(seed);
+    }
+
+    public void setSeed(long seed) {
+        // Run the seed through SplitMix64 so nearby seeds give unrelated streams
+        long z = seed + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        z ^= z >>> 31;
+        state = z != 0 ? z : 0x9E3779B97F4A7C15L;
+    }
+
+    // Raw generator state, for snapshots
+    public long getState() {
+        return state;
+    }
+
+    public void setState(long state) {
+        this.state = state != 0 ? state : 0x9E3779B97F4A7C15L;
+    }
+
+    public long nextLong() {
+        long x = state;
+        x ^= x >>> 12;
+        x ^= x << 25;
+        x ^= x >>> 27;
+        state = x;
+        return x * 0x2545F4914F6CDD1DL;
+    }
+
+    // Uniform in [0, bound)
+    public int nextInt(int bound) {
+        return (int) (((nextLong() >>> 32) * bound) >>> 32);
+    }
+
+    // Uniform in [0, 1)
+    public float nextFloat() {
+        return (nextLong() >>> 40) * 0x1.0p-24f;
+    }
+}
@@ -0,0 +1,172 @@
+package com.flappyduo;
+
+import java.util.Arrays;
+
+/**
+ * Any number of birds stored as parallel primitive arrays. Every bird flies in
+ * the same column, so only y, velocity, wing animation, death and score vary
+ * per bird. Arrays grow with the largest round seen and are reused after that.
+ */
+public class Flock {
+
+    public static final int SIZE = 20;
+    public static final int GRAVITY = 1;
+    public static final int JUMP_STRENGTH = -12;
+    private static final int WING_FRAMES = 5; // Ticks per wing state
+
+    private int x;
+    private int count;
+    private int alive;
+
+    private int[] y = new int[0];
+    private int[] prevY = new int[0]; // Position before the last update, for swept collision
+    private int[] velocity = new int[0];
+    private int[] wingState = new int[0]; // 0: up, 1: mid, 2: down
+    private int[] wingTimer = new int[0];
+    private boolean[] dead = new boolean[0];
+    private int[] score = new int[0];
+    private String[] name = new String[0];
+
+    // Replaces the flock with one live bird per name, placed by startY
+    public void reset(int x, String[] names, int[] startY) {
+        int n = names.length;
+        if (y.length < n) {
+            y = new int[n];
+            prevY = new int[n];
+            velocity = new int[n];
+            wingState = new int[n];
+            wingTimer = new int[n];
+            dead = new boolean[n];
+            score = new int[n];
+            name = new String[n];
+        }
+        this.x = x;
+        this.count = n;
+        this.alive = n;
+        System.arraycopy(startY, 0, y, 0, n);
+        System.arraycopy(startY, 0, prevY, 0, n);
+        System.arraycopy(names, 0, name, 0, n);
+        Arrays.fill(velocity, 0, n, 0);
+        Arrays.fill(wingState, 0, n, 0);
+        Arrays.fill(wingTimer, 0, n, 0);
+        Arrays.fill(dead, 0, n, false);
+        Arrays.fill(score, 0, n, 0);
+    }
+
+    public void update() {
+        for (int i = 0; i < count; i++) {
+            prevY[i] = y[i];
+            if (dead[i]) continue;
+
+            velocity[i] += GRAVITY;
+            y[i] += velocity[i];
+
+            // Animate wings
+            if (++wingTimer[i] > WING_FRAMES) {
+                wingState[i] = (wingState[i] + 1) % 3;
+                wingTimer[i] = 0;
+            }
+        }
+    }
+
+    public void jump(int i) {
+        if (!dead[i]) {
+            velocity[i] = JUMP_STRENGTH;
+        }
+    }
+
+    public void kill(int i) {
+        if (!dead[i]) {
+            dead[i] = true;
+            alive--;
+        }
+    }
+
+    // One point for every bird still alive
+    public boolean scoreAlive() {
+        for (int i = 0; i < count; i++) {
+            if (!dead[i]) score[i]++;
+        }
+        return alive > 0;
+    }
+
+    void save(GameSnapshot s) {
+        s.ensureBirds(count);
+        s.birdsAlive = alive;
+        s.birdX = x;
+        System.arraycopy(y, 0, s.birdY, 0, count);
+        System.arraycopy(prevY, 0, s.birdPrevY, 0, count);
+        System.arraycopy(velocity, 0, s.birdVelocity, 0, count);
+        System.arraycopy(wingState, 0, s.birdWing, 0, count);
+        System.arraycopy(wingTimer, 0, s.birdWingTimer, 0, count);
+        System.arraycopy(dead, 0, s.birdDead, 0, count);
+        System.arraycopy(score, 0, s.score, 0, count);
+    }
+
+    // Names are not part of a snapshot; the flock must still hold the round it was saved from
+    void restore(GameSnapshot s) {
+        if (s.birdCount != count) throw new IllegalStateException("Snapshot has " + s.birdCount + " birds, flock has " + count);
+        alive = s.birdsAlive;
+        x = s.birdX;
+        System.arraycopy(s.birdY, 0, y, 0, count);
+        System.arraycopy(s.birdPrevY, 0, prevY, 0, count);
+        System.arraycopy(s.birdVelocity, 0, velocity, 0, count);
+        System.arraycopy(s.birdWing, 0, wingState, 0, count);
+        System.arraycopy(s.birdWingTimer, 0, wingTimer, 0, count);
+        System.arraycopy(s.birdDead, 0, dead, 0, count);
+        System.arraycopy(s.score, 0, score, 0, count);
+    }
+
+    void capture(FrameState frame) {
+        frame.ensureBirds(count);
+        Arrays.fill(frame.birdX, 0, count, x);
+        for (int i = 0; i < count; i++) {
+            frame.birdY[i] = y[i];
+            frame.birdPrevY[i] = prevY[i];
+        }
+        System.arraycopy(wingState, 0, frame.birdWing, 0, count);
+        System.arraycopy(dead, 0, frame.birdDead, 0, count);
+        System.arraycopy(name, 0, frame.birdName, 0, count);
+        System.arraycopy(score, 0, frame.score, 0, count);
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public int aliveCount() {
+        return alive;
+    }
+
+    public int getX() {
+        return x;
+    }
+
+    public int getY(int i) {
+        return y[i];
+    }
+
+    public int getPrevY(int i) {
+        return prevY[i];
+    }
+
+    public int getVelocity(int i) {
+        return velocity[i];
+    }
+
+    public int getWingState(int i) {
+        return wingState[i];
+    }
+
+    public boolean isDead(int i) {
+        return dead[i];
+    }
+
+    public int getScore(int i) {
+        return score[i];
+    }
+
+    public String getName(int i) {
+        return name[i];
+    }
+}
@@ -0,0 +1,34 @@
+package com.flappyduo;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Lock-free triple buffer between the sim thread and the renderer. The sim owns
+ * one frame to write, the renderer owns one frame to read and the third sits in
+ * the middle holding the latest published state.
+ */
+public class FrameExchange {
+
+    private FrameState back = new FrameState();   // Sim thread only
+    private FrameState front = new FrameState();  // Renderer only
+    private final AtomicReference<FrameState> ready = new AtomicReference<>(new FrameState());
+    private long sequence = 0;
+
+    // Frame the sim thread may fill before calling publish()
+    public FrameState back() {
+        return back;
+    }
+
+    public void publish() {
+        back.sequence = ++sequence;
+        back = ready.getAndSet(back);
+    }
+
+    // Latest published frame; stays untouched until the next acquire()
+    public FrameState acquire() {
+        if (ready.get().sequence > front.sequence) {
+            front = ready.getAndSet(front);
+        }
+        return front;
+    }
+}
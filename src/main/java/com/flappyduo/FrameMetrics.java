@@ -0,0 +1,177 @@
+package com.flappyduo;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+/**
+ * Timers for each stage of a frame: input, simulation, publishing, painting
+ * (split by layer), spectator broadcast and audio mixing, plus how long a jump press takes to reach
+ * the sim and the screen. Stages record into lock-free histograms
+ * from whichever thread runs them; the overlay and JMX read them at any time.
+ * Startup is measured once: from JVM start to the first frame on screen, to
+ * the game taking input, and how long its first real frame took to paint.
+ */
+public class FrameMetrics implements FrameMetricsMXBean {
+
+    final LatencyHistogram input = new LatencyHistogram();
+    final LatencyHistogram inputLatency = new LatencyHistogram(); // Key event to the tick that applies it
+    final LatencyHistogram inputToFrame = new LatencyHistogram(); // Key event to the first painted frame showing it
+    final LatencyHistogram simulation = new LatencyHistogram();
+    final LatencyHistogram publish = new LatencyHistogram();
+    final LatencyHistogram broadcast = new LatencyHistogram(); // Encoding a tick for spectators
+    final LatencyHistogram paint = new LatencyHistogram();
+    final LatencyHistogram paintBackground = new LatencyHistogram();
+    final LatencyHistogram paintPipes = new LatencyHistogram();
+    final LatencyHistogram paintBirds = new LatencyHistogram();
+    final LatencyHistogram paintParticles = new LatencyHistogram();
+    final LatencyHistogram paintText = new LatencyHistogram();
+    final LatencyHistogram audioMix = Sound.mixTimes();
+
+    private final List<GarbageCollectorMXBean> collectors = ManagementFactory.getGarbageCollectorMXBeans();
+
+    // Startup milestones, -1 until reached
+    private final long jvmStart = ManagementFactory.getRuntimeMXBean().getStartTime();
+    private volatile long firstFrameMillis = -1; // Loading screen or game, whichever painted first
+    private volatile long readyMillis = -1;
+    private volatile long firstGameFrameNanos = -1;
+
+    // Called for every painted frame; only the first one costs anything
+    void framePainted() {
+        if (firstFrameMillis < 0) firstFrameMillis = System.currentTimeMillis() - jvmStart;
+    }
+
+    void ready() {
+        readyMillis = System.currentTimeMillis() - jvmStart;
+    }
+
+    // Paint time of a frame drawn by the game's renderer; returns true for the first one
+    boolean gameFramePainted(long nanos) {
+        if (firstGameFrameNanos >= 0) return false;
+        firstGameFrameNanos = nanos;
+        return true;
+    }
+
+    String startupSummary() {
+        return String.format("startup: first frame %d ms, ready %d ms, first game frame %.1f ms",
+                firstFrameMillis, readyMillis, firstGameFrameNanos / 1e6);
+    }
+
+    // Publishes these metrics over JMX; returns false if the name is already taken (a second window, say)
+    public boolean register() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, new ObjectName("com.flappyduo:type=FrameMetrics"));
+            return true;
+        } catch (JMException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public TimerSummary getInput() {
+        return new TimerSummary(input);
+    }
+
+    @Override
+    public TimerSummary getInputLatency() {
+        return new TimerSummary(inputLatency);
+    }
+
+    @Override
+    public TimerSummary getInputToFrame() {
+        return new TimerSummary(inputToFrame);
+    }
+
+    @Override
+    public TimerSummary getSimulation() {
+        return new TimerSummary(simulation);
+    }
+
+    @Override
+    public TimerSummary getPublish() {
+        return new TimerSummary(publish);
+    }
+
+    @Override
+    public TimerSummary getBroadcast() {
+        return new TimerSummary(broadcast);
+    }
+
+    @Override
+    public TimerSummary getPaint() {
+        return new TimerSummary(paint);
+    }
+
+    @Override
+    public TimerSummary getPaintBackground() {
+        return new TimerSummary(paintBackground);
+    }
+
+    @Override
+    public TimerSummary getPaintPipes() {
+        return new TimerSummary(paintPipes);
+    }
+
+    @Override
+    public TimerSummary getPaintBirds() {
+        return new TimerSummary(paintBirds);
+    }
+
+    @Override
+    public TimerSummary getPaintParticles() {
+        return new TimerSummary(paintParticles);
+    }
+
+    @Override
+    public TimerSummary getPaintText() {
+        return new TimerSummary(paintText);
+    }
+
+    @Override
+    public TimerSummary getAudioMix() {
+        return new TimerSummary(audioMix);
+    }
+
+    @Override
+    public long getTimeToFirstFrameMillis() {
+        return firstFrameMillis;
+    }
+
+    @Override
+    public long getTimeToReadyMillis() {
+        return readyMillis;
+    }
+
+    @Override
+    public double getFirstFrameHitchMillis() {
+        return firstGameFrameNanos < 0 ? -1 : firstGameFrameNanos / 1e6;
+    }
+
+    @Override
+    public long getGcCount() {
+        long n = 0;
+        for (GarbageCollectorMXBean gc : collectors) {
+            n += Math.max(0, gc.getCollectionCount());
+        }
+        return n;
+    }
+
+    @Override
+    public long getGcTimeMillis() {
+        long t = 0;
+        for (GarbageCollectorMXBean gc : collectors) {
+            t += Math.max(0, gc.getCollectionTime());
+        }
+        return t;
+    }
+
+    @Override
+    public void reset() {
+        for (LatencyHistogram h : new LatencyHistogram[] { input, inputLatency, inputToFrame, simulation, publish, broadcast, paint, paintBackground,
+                paintPipes, paintBirds, paintParticles, paintText, audioMix }) {
+            h.reset();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.flappyduo;
+
+/**
+ * JMX view of {@link FrameMetrics}, registered as {@code com.flappyduo:type=FrameMetrics}.
+ * Each timer shows up in JConsole as a composite of count, mean, p50, p99 and max
+ * in microseconds.
+ */
+public interface FrameMetricsMXBean {
+
+    TimerSummary getInput();
+
+    TimerSummary getInputLatency();
+
+    TimerSummary getInputToFrame();
+
+    TimerSummary getSimulation();
+
+    TimerSummary getPublish();
+
+    TimerSummary getBroadcast();
+
+    TimerSummary getPaint();
+
+    TimerSummary getPaintBackground();
+
+    TimerSummary getPaintPipes();
+
+    TimerSummary getPaintBirds();
+
+    TimerSummary getPaintParticles();
+
+    TimerSummary getPaintText();
+
+    TimerSummary getAudioMix();
+
+    /** Milliseconds from JVM start to the first frame on screen, -1 before it. */
+    long getTimeToFirstFrameMillis();
+
+    /** Milliseconds from JVM start until the game took input, -1 before it. */
+    long getTimeToReadyMillis();
+
+    /** Paint time of the first frame drawn by the game's renderer, -1 before it. */
+    double getFirstFrameHitchMillis();
+
+    long getGcCount();
+
+    long getGcTimeMillis();
+
+    void reset();
+
+    /** Snapshot of one timer, in microseconds. */
+    final class TimerSummary {
+        private final long count;
+        private final double meanMicros, p50Micros, p99Micros, maxMicros;
+
+        public TimerSummary(LatencyHistogram h) {
+            count = h.getCount();
+            meanMicros = h.getMean() / 1e3;
+            p50Micros = h.percentile(0.50) / 1e3;
+            p99Micros = h.percentile(0.99) / 1e3;
+            maxMicros = h.getMax() / 1e3;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public double getMeanMicros() {
+            return meanMicros;
+        }
+
+        public double getP50Micros() {
+            return p50Micros;
+        }
+
+        public double getP99Micros() {
+            return p99Micros;
+        }
+
+        public double getMaxMicros() {
+            return maxMicros;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.flappyduo;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Copy of everything the renderer needs for one simulated frame. The sim thread
+ * fills a free instance and publishes it through {@link FrameExchange}; once
+ * published it is never written again until the renderer hands it back.
+ *
+ * <p>Moving things carry their position before and after the last tick in
+ * floating point, so the renderer can draw any point in between.
+ */
+public class FrameState {
+
+    long sequence;
+    long publishedAt; // System.nanoTime() when the frame was handed over
+    long stepNanos;   // Sim step length; 0 draws every frame at its final positions
+    boolean moved;    // False when the engine did not tick since the previous frame
+    int bgScrollX;
+    boolean inMenu = true;
+    boolean gameOver;
+
+    // Menu
+    String p1Input = "";
+    String p2Input = "";
+    boolean typingP1 = true;
+
+    long inputAt; // Time of the earliest jump press this frame's ticks applied, 0 if none
+
+    List<Leaderboard.Entry> leaders; // Immutable snapshot of the best results, null without a leaderboard
+
+    String status; // Optional line at the bottom of the screen, e.g. network stats
+
+    // Birds
+    int birdCount;
+    int[] birdX = new int[2];
+    float[] birdY = new float[2];
+    float[] birdPrevY = new float[2];
+    int[] birdWing = new int[2];
+    boolean[] birdDead = new boolean[2];
+    String[] birdName = new String[2];
+    int[] score = new int[2];
+
+    // Pipes
+    int pipeCount;
+    float[] pipeX = new float[8];
+    float[] pipePrevX = new float[8];
+    int[] pipeGapY = new int[8];
+
+    // Particles
+    int particleCount;
+    float[] particleX = new float[64];
+    float[] particleY = new float[64];
+    float[] particlePrevX = new float[64];
+    float[] particlePrevY = new float[64];
+    int[] particleSize = new int[64];
+    float[] particleAlpha = new float[64];
+    int[] particleColor = new int[64];
+
+    /**
+     * How far the display is between the previous tick and this one at time
+     * {@code now}, from 0 to 1. The renderer trails the sim by up to one tick.
+     */
+    public float alpha(long now) {
+        if (stepNanos <= 0) return 1f;
+        float a = (float) (now - publishedAt) / stepNanos;
+        return Math.max(0f, Math.min(1f, a));
+    }
+
+    // Arrays only ever grow, so steady-state capture does not allocate
+    void ensureBirds(int n) {
+        if (birdX.length < n) {
+            int cap = Math.max(n, birdX.length * 2);
+            birdX = Arrays.copyOf(birdX, cap);
+            birdY = Arrays.copyOf(birdY, cap);
+            birdPrevY = Arrays.copyOf(birdPrevY, cap);
+            birdWing = Arrays.copyOf(birdWing, cap);
+            birdDead = Arrays.copyOf(birdDead, cap);
+            birdName = Arrays.copyOf(birdName, cap);
+            score = Arrays.copyOf(score, cap);
+        }
+        birdCount = n;
+    }
+
+    void ensurePipes(int n) {
+        if (pipeX.length < n) {
+            int cap = Math.max(n, pipeX.length * 2);
+            pipeX = Arrays.copyOf(pipeX, cap);
+            pipePrevX = Arrays.copyOf(pipePrevX, cap);
+            pipeGapY = Arrays.copyOf(pipeGapY, cap);
+        }
+        pipeCount = n;
+    }
+
+    void ensureParticles(int n) {
+        if (particleX.length < n) {
+            int cap = Math.max(n, particleX.length * 2);
+            particleX = Arrays.copyOf(particleX, cap);
+            particleY = Arrays.copyOf(particleY, cap);
+            particlePrevX = Arrays.copyOf(particlePrevX, cap);
+            particlePrevY = Arrays.copyOf(particlePrevY, cap);
+            particleSize = Arrays.copyOf(particleSize, cap);
+            particleAlpha = Arrays.copyOf(particleAlpha, cap);
+            particleColor = Arrays.copyOf(particleColor, cap);
+        }
+        particleCount = n;
+    }
+}
@@ -0,0 +1,360 @@
+package com.flappyduo;
+
+/**
+ * Headless game state and tick logic. Knows nothing about AWT or Swing, so it
+ * can be driven by the window, by benchmarks or by tools without a display.
+ */
+public class GameEngine {
+
+    public static final int WIDTH = 800;
+    public static final int HEIGHT = 600;
+    public static final int BIRD_X = 100;
+    // Enough for the densest course (speed 12, a pipe every 40 ticks); the ring grows if ever exceeded
+    private static final int PIPE_CAPACITY = 16;
+
+    private final Flock birds = new Flock();
+    private final PipeRing pipes = new PipeRing(PIPE_CAPACITY);
+    private final ParticleSystem particles;
+    private long seed; // Seed of the current round
+    private long nextSeed;
+    private Course course; // Pipes and speeds of the current round, generated ahead in the background
+    private Course upcoming; // The next round's course, generating while this one plays
+    private final boolean headless; // One inline course, reseeded for every round
+    private int nextPipe; // Index of the next course pipe to spawn
+    private int nextSpawnTick; // Tick it spawns on, cached so a tick only compares
+    private int ticks;
+    private int capturedTicks = -1; // Tick count at the last capture
+    private int pipeSpeed;
+    private boolean gameOver = false;
+
+    private GameListener listener = GameListener.NONE;
+    private ReplayRecorder recorder; // Null unless recording
+
+    public GameEngine() {
+        this(System.nanoTime());
+    }
+
+    public GameEngine(long seed) {
+        this(seed, ParticleSystem.DEFAULT_CAPACITY);
+    }
+
+    public GameEngine(long seed, int particleCapacity) {
+        this(seed, particleCapacity, false);
+    }
+
+    private GameEngine(long seed, int particleCapacity, boolean headless) {
+        this.seed = seed;
+        this.nextSeed = seed;
+        this.headless = headless;
+        this.course = headless ? Course.inline(seed) : Course.of(seed);
+        this.pipeSpeed = course.speedAt(0);
+        this.particles = new ParticleSystem(particleCapacity, ~seed);
+    }
+
+    /**
+     * An engine for tools that play round after round with nobody watching: no
+     * particles, and pipes generated inline on one course that every round
+     * reseeds, so no round registers a course or queues work on the shared
+     * background thread.
+     */
+    public static GameEngine headless(long seed) {
+        return new GameEngine(seed, 0, true);
+    }
+
+    public void setListener(GameListener listener) {
+        this.listener = listener != null ? listener : GameListener.NONE;
+    }
+
+    public void setRecorder(ReplayRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    // Starts a new round with one bird per name; the first round uses the engine's seed, later ones derive theirs from it
+    public void start(String... names) {
+        long roundSeed = nextSeed;
+        nextSeed = nextSeed * 6364136223846793005L + 1442695040888963407L;
+        start(roundSeed, names);
+        if (!headless) upcoming = Course.of(nextSeed);
+    }
+
+    // Starts a round whose course and particles depend only on the given seed and the inputs that follow
+    public void start(long seed, String... names) {
+        this.seed = seed;
+        if (course.getSeed() != seed) { // Replays and restarts of one course reuse it
+            if (headless) {
+                course.reseed(seed);
+            } else {
+                course = upcoming != null && upcoming.getSeed() == seed ? upcoming : Course.of(seed);
+            }
+        }
+        particles.setSeed(~seed);
+
+        int[] startY = new int[names.length];
+        for (int i = 0; i < names.length; i++) {
+            startY[i] = startY(i);
+        }
+        birds.reset(BIRD_X, names, startY);
+
+        pipes.clear();
+        particles.clear();
+        ticks = 0;
+        gameOver = false;
+
+        pipeSpeed = course.speedAt(0);
+        nextPipe = 0;
+        nextSpawnTick = course.spawnTick(0);
+
+        if (recorder != null) recorder.start(seed, names);
+    }
+
+    // The first two birds keep their original spots; larger flocks repeat down the middle of the screen
+    private static int startY(int bird) {
+        return HEIGHT / 4 + (HEIGHT / 4 + 50 * bird) % (HEIGHT / 2);
+    }
+
+    public void jump(int bird) {
+        if (recorder != null) recorder.jump(bird);
+        if (!birds.isDead(bird)) {
+            birds.jump(bird);
+            listener.onJump(bird);
+        }
+        spawnParticles(birds.getX(), birds.getY(bird) + 10, ParticleSystem.COLOR_PUFF, 5);
+    }
+
+    public void tick() {
+        if (gameOver) return;
+
+        if (recorder != null) recorder.tick(); // Jumps since the last tick belong to this one
+        ticks++;
+
+        pipeSpeed = course.speedAt(ticks);
+
+        birds.update();
+
+        // Spawn the course's next pipe; it was generated ahead of time
+        if (ticks == nextSpawnTick) {
+            pipes.add(WIDTH, course.gapY(nextPipe));
+            nextSpawnTick = course.spawnTick(++nextPipe);
+        }
+
+        // Update pipes
+        for (int i = 0; i < pipes.size(); i++) {
+            pipes.get(i).update(pipeSpeed);
+        }
+
+        // Cleanup; pipes leave in the order they came in
+        while (pipes.size() > 0 && pipes.get(0).getX() + Pipe.WIDTH < 0) {
+            pipes.removeFirst();
+        }
+
+        particles.update();
+
+        checkCollisions();
+        updateScore();
+    }
+
+    public void checkCollisions() {
+        boolean crash = false;
+
+        // Broadphase: every bird shares one column, so only pipes overlapping it this tick matter
+        int x = birds.getX();
+        int right = x + Flock.SIZE;
+        int first = Collisions.firstCandidate(pipes, x);
+        int last = first;
+        while (last < pipes.size() && pipes.get(last).getX() < right) {
+            last++; // Pipes are sorted by x
+        }
+
+        for (int i = 0; i < birds.size(); i++) {
+            if (birds.isDead(i)) continue;
+            int y = birds.getY(i);
+
+            // Floor/Ceiling collision
+            boolean hit = y + Flock.SIZE >= HEIGHT || y <= 0;
+
+            // Pipe collision, swept over this tick's movement of the bird and the pipe
+            for (int p = first; p < last && !hit; p++) {
+                hit = Collisions.hitsPipe(pipes.get(p), x, birds.getPrevY(i), y, Flock.SIZE);
+            }
+
+            if (hit) {
+                birds.kill(i);
+                spawnParticles(x, y, ParticleSystem.COLOR_BIRD + i, 20);
+                crash = true;
+            }
+        }
+
+        if (crash) listener.onCrash();
+
+        if (birds.aliveCount() == 0) {
+            gameOver = true;
+        }
+    }
+
+    public void updateScore() {
+        for (int p = 0; p < pipes.size(); p++) {
+             Pipe pipe = pipes.get(p);
+             if (pipe.getX() + pipe.getWidth() >= BIRD_X) break; // Everything further right is still ahead
+             if (!pipe.isPassed()) {
+                 if (birds.scoreAlive()) listener.onScore();
+                 pipe.setPassed(true);
+             }
+        }
+    }
+
+    public void spawnParticles(int x, int y, int color, int count) {
+        particles.spawn(x, y, color, count, 20, 3);
+    }
+
+    // Places a pipe directly; used by tools and benchmarks to build scenarios. Add pipes left to right.
+    public void addPipe(int x, int gapY) {
+        pipes.add(x, gapY);
+    }
+
+    // Copies everything the renderer needs into a free frame
+    public void capture(FrameState frame) {
+        frame.inMenu = false;
+        frame.gameOver = gameOver;
+        // Things only move between captures if a tick ran; stalls and game over hold still
+        frame.moved = ticks != capturedTicks;
+        capturedTicks = ticks;
+
+        birds.capture(frame);
+
+        frame.ensurePipes(pipes.size());
+        for (int i = 0; i < pipes.size(); i++) {
+            Pipe pipe = pipes.get(i);
+            frame.pipeX[i] = pipe.getX();
+            frame.pipePrevX[i] = pipe.getPrevX();
+            frame.pipeGapY[i] = pipe.getGapY();
+        }
+
+        particles.capture(frame);
+    }
+
+    // Fills in what a controller sees of one bird: itself and the next pipe it has to clear
+    public void observe(int bird, Observation out) {
+        out.tick = ticks;
+        out.birdY = birds.getY(bird);
+        out.velocity = birds.getVelocity(bird);
+        out.pipeSpeed = pipeSpeed;
+
+        int p = 0;
+        while (p < pipes.size() && pipes.get(p).getX() + Pipe.WIDTH < BIRD_X) {
+            p++; // Already behind the bird
+        }
+        if (p < pipes.size()) {
+            Pipe pipe = pipes.get(p);
+            out.pipeDistance = pipe.getX() - BIRD_X;
+            out.gapTop = pipe.getGapY();
+        } else {
+            out.pipeDistance = WIDTH - BIRD_X; // Nothing spawned yet; aim for the middle
+            out.gapTop = (HEIGHT - Pipe.GAP_HEIGHT) / 2;
+        }
+        out.gapBottom = out.gapTop + Pipe.GAP_HEIGHT;
+    }
+
+    // Copies the complete round state into a snapshot; allocates only if the snapshot has to grow
+    public void save(GameSnapshot s) {
+        s.ticks = ticks;
+        s.gameOver = gameOver;
+        s.nextPipe = nextPipe;
+        birds.save(s);
+
+        s.ensurePipes(pipes.size());
+        for (int i = 0; i < pipes.size(); i++) {
+            Pipe pipe = pipes.get(i);
+            s.pipeX[i] = pipe.getX();
+            s.pipePrevX[i] = pipe.getPrevX();
+            s.pipeGapY[i] = pipe.getGapY();
+            s.pipePassed[i] = pipe.isPassed();
+        }
+
+        particles.save(s);
+        s.valid = true;
+    }
+
+    // Puts the round back exactly as it was saved; the round's birds must be the ones it was saved from
+    public void restore(GameSnapshot s) {
+        ticks = s.ticks;
+        pipeSpeed = course.speedAt(ticks);
+        gameOver = s.gameOver;
+        nextPipe = s.nextPipe;
+        nextSpawnTick = course.spawnTick(nextPipe);
+        birds.restore(s);
+
+        pipes.clear();
+        for (int i = 0; i < s.pipeCount; i++) {
+            pipes.add(s.pipeX[i], s.pipeGapY[i]).restore(s.pipePrevX[i], s.pipePassed[i]);
+        }
+
+        particles.restore(s);
+    }
+
+    // Hash of everything that decides the rest of the round; equal hashes mean a replay stayed in sync
+    public long stateHash() {
+        long h = 1125899906842597L;
+        h = 31 * h + ticks;
+        h = 31 * h + pipeSpeed;
+        h = 31 * h + course.spawnIntervalAt(ticks);
+        h = 31 * h + (gameOver ? 1 : 0);
+        for (int i = 0; i < birds.size(); i++) {
+            h = 31 * h + birds.getY(i);
+            h = 31 * h + birds.getVelocity(i);
+            h = 31 * h + (birds.isDead(i) ? 1 : 0);
+            h = 31 * h + birds.getScore(i);
+        }
+        for (int i = 0; i < pipes.size(); i++) {
+            Pipe pipe = pipes.get(i);
+            h = 31 * h + pipe.getX();
+            h = 31 * h + pipe.getGapY();
+            h = 31 * h + (pipe.isPassed() ? 1 : 0);
+        }
+        return h;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public Course getCourse() {
+        return course;
+    }
+
+    public int getBirdCount() {
+        return birds.size();
+    }
+
+    public Flock getBirds() {
+        return birds;
+    }
+
+    public int getScore(int bird) {
+        return birds.getScore(bird);
+    }
+
+    public int getPipeCount() {
+        return pipes.size();
+    }
+
+    // i-th pipe from the left
+    public Pipe getPipe(int i) {
+        return pipes.get(i);
+    }
+
+    public int getParticleCount() {
+        return particles.size();
+    }
+
+    public int getPipeSpeed() {
+        return pipeSpeed;
+    }
+
+    public int getTicks() {
+        return ticks;
+    }
+
+    public boolean isGameOver() {
+        return gameOver;
+    }
+}
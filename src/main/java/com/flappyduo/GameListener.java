@@ -0,0 +1,16 @@
+package com.flappyduo;
+
+/**
+ * Side effects the engine reports instead of performing itself, so a headless
+ * engine stays silent and the window can map them to sound.
+ */
+public interface GameListener {
+
+    GameListener NONE = new GameListener() {};
+
+    default void onJump(int bird) {}
+
+    default void onScore() {}
+
+    default void onCrash() {}
+}
@@ -0,0 +1,93 @@
+package com.flappyduo;
+
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongConsumer;
+
+/**
+ * Fixed-timestep simulation loop on its own thread. Wall-clock time is fed into
+ * an accumulator and drained in whole ticks, so the sim rate stays steady no
+ * matter how long the EDT spends painting.
+ *
+ * <p>Each tick is handed the {@link System#nanoTime()} its step ends at. Input
+ * stamped up to that time belongs to the tick, even when several ticks run back
+ * to back to catch up.
+ */
+public class GameLoop implements Runnable {
+
+    public static final int DEFAULT_HZ = 50;
+
+    // Never try to catch up more than this many ticks after a stall (debugger, sleep...)
+    private static final int MAX_CATCH_UP_TICKS = 5;
+
+    private final int hz;
+    private final long stepNanos;
+    private final LongConsumer tick;
+    private final Runnable frame;
+
+    private volatile boolean running = false;
+    private Thread thread;
+
+    public GameLoop(int hz, LongConsumer tick, Runnable frame) {
+        if (hz <= 0) throw new IllegalArgumentException("hz must be positive: " + hz);
+        this.hz = hz;
+        this.stepNanos = 1_000_000_000L / hz;
+        this.tick = tick;
+        this.frame = frame;
+    }
+
+    public void start() {
+        if (running) return;
+        running = true;
+        thread = new Thread(this, "flappyduo-sim");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public void stop() {
+        running = false;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    public int getHz() {
+        return hz;
+    }
+
+    public long getStepNanos() {
+        return stepNanos;
+    }
+
+    @Override
+    public void run() {
+        long last = System.nanoTime();
+        long accumulator = 0;
+
+        while (running) {
+            long now = System.nanoTime();
+            accumulator += now - last;
+            last = now;
+
+            if (accumulator > MAX_CATCH_UP_TICKS * stepNanos) {
+                accumulator = MAX_CATCH_UP_TICKS * stepNanos; // Drop time we can't recover
+            }
+
+            boolean ticked = false;
+            while (accumulator >= stepNanos) {
+                accumulator -= stepNanos;
+                tick.accept(now - accumulator); // Time left over is what lies beyond this tick's step
+                ticked = true;
+            }
+
+            // Hand the newest state to the renderer once per batch of ticks
+            if (ticked) {
+                frame.run();
+            }
+
+            long wait = stepNanos - accumulator - (System.nanoTime() - now);
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+        }
+    }
+}
@@ -3,55 +3,86 @@ package com.flappyduo;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.*;
-import java.util.ArrayList;
-import java.util.Random;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
 
-public class GamePanel extends JPanel implements ActionListener, KeyListener {
+public class GamePanel extends JPanel implements KeyListener, GameListener {
     
-    private static final int WIDTH = 800;
-    private static final int HEIGHT = 600;
-    private static final int INITIAL_SPAWN_RATE = 100; // Frames
+    private static final int WIDTH = GameEngine.WIDTH;
+    private static final int HEIGHT = GameEngine.HEIGHT;
     
-    private Timer timer;
-    private Bird bird1; // Spacebar
-    private Bird bird2; // Up Arrow
-    private ArrayList<Pipe> pipes;
-    private Random random;
-    private int ticks;
-    private int currentSpawnRate = INITIAL_SPAWN_RATE;
+    private GameLoop loop;
+    private RenderLoop display; // Paces painting at the display rate
+    private ActiveRenderCanvas canvas; // Only in active rendering mode
+    private final FrameExchange frames = new FrameExchange();
+    // Guards sim state shared between the sim thread and key events on the EDT
+    private final Object stateLock = new Object();
+    private final GameEngine engine;
+    private volatile GameRenderer renderer; // Null while a fast start is still loading
+    private final FrameMetrics metrics = new FrameMetrics();
+    private final QualityGovernor quality = new QualityGovernor(); // Render thread feeds it paint times
+    private final MetricsOverlay overlay = new MetricsOverlay(metrics, quality);
+    private volatile boolean showMetrics = false; // Toggled with F3
+    private final boolean deferred; // Fast start: resources arrive through finishLoading
+    private volatile boolean ready; // Keys other than F3 are ignored until then
+    private volatile float loadProgress; // Shown as a bar while loading
     
     private boolean running = false;
-    private boolean gameOver = false;
-    private boolean inMenu = true;
+    private volatile boolean inMenu = true; // Read without the lock when a key goes down
+    
+    private ReplayRecorder recorder; // Only when recording
+    private Path recordPath;
+    private ReplayPlayer replay; // Only while watching a replay
+    private LockstepLink link; // Only in an online match
+    private Leaderboard leaderboard; // Only when results are kept
+    private SpectatorServer spectators; // Only when broadcasting
+    private Course course; // Only when every round plays one shared course
+    private SpectatorClient watching; // Only while spectating someone else's game
+    private boolean watchEnded; // The broadcast is over; watching stays so its last state keeps showing
+    private String status; // Shown at the bottom of the screen
     
     private String player1Name = "Player 1";
     private String player2Name = "Player 2";
     private StringBuilder p1Input = new StringBuilder();
     private StringBuilder p2Input = new StringBuilder();
+    private String p1Text = ""; // Snapshots of the inputs for the renderer
+    private String p2Text = "";
     private boolean typingP1 = true; // Focus on P1 input initially
-    
-    private int score1 = 0;
-    private int score2 = 0;
 
-    // Tokyo Night Colors
-    private static final Color BG_COLOR = new Color(26, 27, 38); // Deep dark blue/black
-    private static final Color NEON_PINK = new Color(255, 0, 124);
-    private static final Color NEON_CYAN = new Color(0, 255, 255);
-    private static final Color TEXT_COLOR = new Color(192, 202, 245);
-
-    // Input state tracking
-    private boolean[] keys = new boolean[256];
-    private boolean p1JumpReady = true;
-    private boolean p2JumpReady = true;
+    // Jump keys reach the sim as timestamped events through a lock-free queue; bird i jumps with JUMP_KEYS[i]
+    private static final int[] JUMP_KEYS = { KeyEvent.VK_SPACE, KeyEvent.VK_UP };
+    private final InputQueue input = new InputQueue();
+    private final boolean[] jumpHeld = new boolean[JUMP_KEYS.length];
+    private final boolean[] jumpPressed = new boolean[JUMP_KEYS.length]; // Went down during the current tick
+    private final long[] jumpPressedAt = new long[JUMP_KEYS.length];
+    private long inputAt; // Earliest press applied since the last published frame, 0 if none
+    private boolean onlineJump; // Online: a press waiting for a tick that runs, kept through stalls
+    private long onlineJumpAt;
+    private long latencySequence; // Renderer only: last frame whose input-to-frame latency was recorded
 
     // Visual effects
-    private ArrayList<Particle> particles;
     private int bgScrollX = 0;
-    private ArrayList<Point> stars;
 
     public GamePanel() {
+        this(GameLoop.DEFAULT_HZ, 0, 0);
+    }
+
+    public GamePanel(int tickRate, int activeBuffers) {
+        this(tickRate, activeBuffers, 0);
+    }
+
+    public GamePanel(int tickRate, int activeBuffers, int fps) {
+        this(tickRate, activeBuffers, fps, false);
+    }
+
+    // activeBuffers: 2 or 3 to render actively through a BufferStrategy, 0 for the Swing repaint() path.
+    // fps: frames painted per second, 0 for the display's refresh rate.
+    // deferred: show a loading bar until Startup hands over the renderer, instead of building it here
+    public GamePanel(int tickRate, int activeBuffers, int fps, boolean deferred) {
+        this.deferred = deferred;
         this.setPreferredSize(new Dimension(WIDTH, HEIGHT));
-        this.setBackground(BG_COLOR);
+        this.setBackground(GameRenderer.BG_COLOR);
         this.setFocusable(true);
         this.setFocusTraversalKeysEnabled(false); // Fix for TAB key
         this.addKeyListener(this);
@@ -64,268 +95,424 @@ public class GamePanel extends JPanel implements ActionListener, KeyListener {
             }
         });
         
-        bird1 = new Bird(100, HEIGHT / 2, NEON_PINK, player1Name);
-        bird2 = new Bird(100, HEIGHT / 2 + 50, NEON_CYAN, player2Name);
-        pipes = new ArrayList<>();
-        particles = new ArrayList<>();
-        random = new Random();
+        if (activeBuffers > 0) {
+            canvas = new ActiveRenderCanvas(activeBuffers, this::render);
+            canvas.setFocusTraversalKeysEnabled(false);
+            canvas.addKeyListener(this);
+            canvas.addMouseListener(new MouseAdapter() {
+                @Override
+                public void mousePressed(MouseEvent e) {
+                    canvas.requestFocusInWindow();
+                }
+            });
+            this.setLayout(new BorderLayout());
+            this.add(canvas, BorderLayout.CENTER);
+        }
         
-        // Generate stars
-        stars = new ArrayList<>();
-        for (int i = 0; i < 100; i++) {
-            stars.add(new Point(random.nextInt(WIDTH), random.nextInt(HEIGHT)));
+        engine = new GameEngine();
+        engine.setListener(this);
+        engine.start(player1Name, player2Name);
+        if (!deferred) {
+            Sound.preload();
+            renderer = new GameRenderer();
+            renderer.setMetrics(metrics);
+            metrics.register();
+            quality.register();
+            ready = true;
+            metrics.ready();
         }
         
-        timer = new Timer(20, this); // ~50 FPS
-        timer.start();
+        loop = new GameLoop(tickRate, this::tick, this::publishFrame);
+        loop.start();
+        display = new RenderLoop(fps, this::requestFrame);
+        display.start();
     }
 
-    @Override
-    public void paintComponent(Graphics g) {
-        super.paintComponent(g);
-        Graphics2D g2d = (Graphics2D) g;
-        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+    // Saves every finished round to path, replacing the previous one
+    public void recordTo(Path path) {
+        synchronized (stateLock) {
+            recordPath = path;
+            recorder = new ReplayRecorder();
+            engine.setRecorder(recorder);
+        }
+    }
 
-        drawBackground(g2d);
+    // Adds every bird's result to the board when a round ends
+    public void useLeaderboard(Leaderboard board) {
+        synchronized (stateLock) {
+            leaderboard = board;
+        }
+    }
 
-        if (inMenu) {
-            drawMenu(g2d);
-        } else {
-            drawGame(g2d);
-            if (gameOver) {
-                drawGameOver(g2d);
-            }
+    // Skips the menu and plays back a recorded round
+    public void playReplay(Replay recording) {
+        synchronized (stateLock) {
+            replay = new ReplayPlayer(recording);
+            replay.start(engine);
+            running = true;
+            inMenu = false;
         }
     }
-    
-    private void drawBackground(Graphics2D g2d) {
-        // Gradient sky
-        GradientPaint gp = new GradientPaint(0, 0, new Color(10, 10, 20), 0, HEIGHT, new Color(30, 20, 40));
-        g2d.setPaint(gp);
-        g2d.fillRect(0, 0, WIDTH, HEIGHT);
-        
-        // Stars
-        g2d.setColor(Color.WHITE);
-        for (Point p : stars) {
-            int x = (p.x - bgScrollX / 2) % WIDTH;
-            if (x < 0) x += WIDTH;
-            g2d.fillRect(x, p.y, 2, 2);
+
+    // Plays an online match instead of the menu; this window controls the link's local bird
+    public void playOnline(LockstepLink online) {
+        synchronized (stateLock) {
+            link = online;
+            inMenu = false;
+            running = false; // Until the handshake completes
+            status = online.isHost() ? "Waiting for an opponent..." : "Connecting...";
         }
-        
-        // Cityscape silhouette (procedural)
-        g2d.setColor(new Color(10, 10, 15));
-        for (int i = 0; i < WIDTH / 50 + 2; i++) {
-            int h = Math.abs((i * 137) % 150) + 50;
-            int x = (i * 50 - bgScrollX) % (WIDTH + 50);
-            if (x < -50) x += WIDTH + 50;
-            g2d.fillRect(x, HEIGHT - h, 52, h);
-            
-            // Windows
-            g2d.setColor(new Color(255, 255, 0, 50));
-            if (h > 100) {
-                g2d.fillRect(x + 10, HEIGHT - h + 20, 10, 10);
-                g2d.fillRect(x + 30, HEIGHT - h + 50, 10, 10);
-            }
-            g2d.setColor(new Color(10, 10, 15));
+    }
+
+    // Plays every round on the given course instead of a fresh one each time
+    public void useCourse(Course shared) {
+        synchronized (stateLock) {
+            course = shared;
+            status = "Course: " + shared;
         }
     }
 
-    private void drawMenu(Graphics2D g2d) {
-        g2d.setColor(TEXT_COLOR);
-        g2d.setFont(new Font("Consolas", Font.BOLD, 40));
-        String title = "FLAPPY DUO: TOKYO NIGHT";
-        FontMetrics fm = g2d.getFontMetrics();
-        g2d.drawString(title, (WIDTH - fm.stringWidth(title)) / 2, 150);
+    // Streams every tick to spectators
+    public void broadcastTo(SpectatorServer server) {
+        synchronized (stateLock) {
+            spectators = server;
+        }
+    }
 
-        g2d.setFont(new Font("Consolas", Font.PLAIN, 20));
-        g2d.drawString("Enter Player Names:", (WIDTH - fm.stringWidth("Enter Player Names:")) / 2 - 50, 250);
+    // Shows a game streamed by another player's SpectatorServer instead of playing
+    public void spectate(SpectatorClient client) {
+        synchronized (stateLock) {
+            watching = client;
+            watchEnded = false;
+            inMenu = false;
+            running = false;
+            status = "Spectating: waiting for the first keyframe...";
+        }
+    }
 
-        // Input boxes
-        g2d.setColor(typingP1 ? NEON_PINK : Color.GRAY);
-        g2d.drawRect(WIDTH / 2 - 150, 280, 300, 40);
-        g2d.setColor(TEXT_COLOR);
-        g2d.drawString(p1Input.toString() + (typingP1 ? "|" : ""), WIDTH / 2 - 140, 305);
-        g2d.drawString("(Spacebar Player)", WIDTH / 2 + 160, 305);
+    // Fast start: called from the loading thread once the renderer is built and warmed up
+    void finishLoading(GameRenderer loaded) {
+        loaded.setMetrics(metrics);
+        renderer = loaded;
+        ready = true;
+        metrics.ready();
+    }
 
-        g2d.setColor(!typingP1 ? NEON_CYAN : Color.GRAY);
-        g2d.drawRect(WIDTH / 2 - 150, 350, 300, 40);
-        g2d.setColor(TEXT_COLOR);
-        g2d.drawString(p2Input.toString() + (!typingP1 ? "|" : ""), WIDTH / 2 - 140, 375);
-        g2d.drawString("(Up Arrow Player)", WIDTH / 2 + 160, 375);
+    void setLoadProgress(float progress) {
+        loadProgress = progress;
+    }
 
-        g2d.setColor(Color.WHITE);
-        g2d.drawString("Press ENTER to Start", (WIDTH - fm.stringWidth("Press ENTER to Start")) / 2 - 40, 500);
-        g2d.drawString("Press TAB to switch input", (WIDTH - fm.stringWidth("Press TAB to switch input")) / 2 - 50, 530);
+    @Override
+    public boolean requestFocusInWindow() {
+        return canvas != null ? canvas.requestFocusInWindow() : super.requestFocusInWindow();
     }
 
-    private void drawGame(Graphics2D g2d) {
-        for (Pipe pipe : pipes) {
-            pipe.draw(g2d);
+    @Override
+    public void paintComponent(Graphics g) {
+        super.paintComponent(g);
+        if (canvas == null) {
+            render((Graphics2D) g);
         }
-        
-        bird1.draw(g2d);
-        bird2.draw(g2d);
-        
-        for (Particle p : particles) {
-            p.draw(g2d);
+    }
+
+    // Called at the display rate from the render loop
+    private void requestFrame() {
+        if (canvas != null) {
+            canvas.renderFrame();
+        } else {
+            repaint();
         }
+    }
 
-        // Score
-        g2d.setFont(new Font("Consolas", Font.BOLD, 20));
-        g2d.setColor(NEON_PINK);
-        g2d.drawString(player1Name + ": " + score1, 20, 30);
-        g2d.setColor(NEON_CYAN);
-        g2d.drawString(player2Name + ": " + score2, 20, 60);
+    // Shared by the Swing and active rendering paths
+    private void render(Graphics2D g2d) {
+        GameRenderer current = renderer;
+        if (current == null) {
+            drawLoading(g2d);
+            metrics.framePainted();
+            return;
+        }
+        long start = System.nanoTime();
+        FrameState frame = frames.acquire();
+        current.setQuality(quality.getLevel());
+        current.render(g2d, frame, frame.alpha(start));
+        long end = System.nanoTime();
+        metrics.paint.record(end - start);
+        quality.record(end - start);
+        metrics.framePainted();
+        if (metrics.gameFramePainted(end - start) && deferred) {
+            System.out.println(metrics.startupSummary());
+        }
+        if (frame.inputAt != 0 && frame.sequence != latencySequence) {
+            latencySequence = frame.sequence; // Only the first paint of a frame counts
+            metrics.inputToFrame.record(end - frame.inputAt);
+        }
+        if (showMetrics) {
+            overlay.draw(g2d);
+        }
     }
 
-    private void drawGameOver(Graphics2D g2d) {
-        g2d.setColor(new Color(0, 0, 0, 150));
+    // No text: fonts are among the things still loading
+    private void drawLoading(Graphics2D g2d) {
+        int barWidth = 300;
+        int x = (WIDTH - barWidth) / 2;
+        int y = HEIGHT / 2;
+        g2d.setColor(GameRenderer.BG_COLOR);
         g2d.fillRect(0, 0, WIDTH, HEIGHT);
+        g2d.setColor(GameRenderer.NEON_CYAN);
+        g2d.drawRect(x, y, barWidth, 10);
+        g2d.fillRect(x + 2, y + 2, (int) ((barWidth - 3) * loadProgress), 7);
+    }
 
-        g2d.setColor(Color.WHITE);
-        g2d.setFont(new Font("Consolas", Font.BOLD, 50));
-        String msg = "GAME OVER";
-        FontMetrics fm = g2d.getFontMetrics();
-        g2d.drawString(msg, (WIDTH - fm.stringWidth(msg)) / 2, HEIGHT / 2 - 50);
+    public FrameMetrics getMetrics() {
+        return metrics;
+    }
 
-        g2d.setFont(new Font("Consolas", Font.PLAIN, 20));
-        String sub = "Press ENTER to Restart";
-        g2d.drawString(sub, (WIDTH - g2d.getFontMetrics().stringWidth(sub)) / 2, HEIGHT / 2 + 20);
+    public QualityGovernor getQuality() {
+        return quality;
     }
 
-    @Override
-    public void actionPerformed(ActionEvent e) {
-        bgScrollX++; // Always scroll background
-        
-        if (running && !gameOver) {
-            handleInput(); // Poll inputs
-            
-            ticks++;
+    // One fixed simulation step, called from the sim thread; tickTime is when the step ends
+    private void tick(long tickTime) {
+        synchronized (stateLock) {
+            bgScrollX++; // Always scroll background
+
+            long start = System.nanoTime();
+            drainInput(tickTime);
+            metrics.input.record(System.nanoTime() - start);
             
-            // Increase difficulty every 500 ticks (10 seconds)
-            if (ticks % 500 == 0) {
-                if (Pipe.speed < 12) Pipe.speed++;
-                if (currentSpawnRate > 40) currentSpawnRate -= 5;
+            if (watching != null) {
+                watchTick();
+            } else if (link != null) {
+                onlineTick();
+            } else if (running && !engine.isGameOver()) {
+                if (replay != null) {
+                    replay.step(engine);
+                } else {
+                    handleInput();
+                    long simStart = System.nanoTime();
+                    engine.tick();
+                    metrics.simulation.record(System.nanoTime() - simStart);
+                }
+                if (engine.isGameOver()) {
+                    roundOver();
+                }
             }
-            
-            bird1.update();
-            bird2.update();
 
-            // Spawn pipes
-            if (ticks % currentSpawnRate == 0) {
-                int gapY = random.nextInt(HEIGHT - 250) + 50; // Random gap position
-                pipes.add(new Pipe(WIDTH, gapY));
+            if (spectators != null) {
+                long publishStart = System.nanoTime();
+                spectators.publish(engine);
+                metrics.broadcast.record(System.nanoTime() - publishStart);
             }
+        }
+    }
 
-            // Update pipes & cleanup
-            for (int i = 0; i < pipes.size(); i++) {
-                Pipe pipe = pipes.get(i);
-                pipe.update();
-
-                if (pipe.getX() + pipe.getWidth() < 0) {
-                    pipes.remove(i);
-                    i--;
-                }
+    // Copies the current sim state into a free frame and hands it to the renderer
+    private void publishFrame() {
+        long start = System.nanoTime();
+        FrameState frame = frames.back();
+        synchronized (stateLock) {
+            if (watching != null) {
+                watching.capture(frame);
+            } else {
+                engine.capture(frame);
             }
-            
-            // Update particles
-            for (int i = 0; i < particles.size(); i++) {
-                if (!particles.get(i).update()) {
-                    particles.remove(i);
-                    i--;
+            frame.bgScrollX = bgScrollX;
+            frame.inMenu = inMenu;
+            frame.p1Input = p1Text;
+            frame.p2Input = p2Text;
+            frame.typingP1 = typingP1;
+            frame.status = status;
+            frame.leaders = leaderboard != null && watching == null ? leaderboard.top() : null;
+            frame.inputAt = inputAt;
+            inputAt = 0;
+        }
+        frame.stepNanos = loop.getStepNanos();
+        frame.publishedAt = System.nanoTime();
+        frames.publish();
+        metrics.publish.record(frame.publishedAt - start);
+    }
+    
+    // Lockstep: the engine only ticks once both players' inputs for the tick have arrived
+    private void onlineTick() {
+        try {
+            link.receive();
+            if (!running) {
+                if (link.isConnected()) {
+                    engine.start(link.getSeed(), link.getNames());
+                    running = true;
+                }
+            } else if (!engine.isGameOver()) {
+                holdLocalJump();
+                if (link.ready(engine)) {
+                    boolean jump = takeLocalJump();
+                    long simStart = System.nanoTime();
+                    link.advance(engine, jump);
+                    metrics.simulation.record(System.nanoTime() - simStart);
+                    if (engine.isGameOver()) {
+                        roundOver();
+                    }
                 }
             }
+            link.send();
+        } catch (IOException e) {
+            // The round ends here; falling through to local play would hand the opponent's bird to this keyboard
+            status = "Network error: " + e.getMessage();
+            running = false;
+            try {
+                link.close();
+            } catch (IOException closing) {
+                // Already broken
+            }
+            link = null;
+            return;
+        }
 
-            checkCollisions();
-            updateScore();
+        if (link.isPeerLost()) {
+            status = "Opponent disconnected";
+        } else if (running && bgScrollX % 25 == 0) { // Twice a second at 50 Hz
+            status = String.format("Online  RTT %.0f ms  stalls %d  input delay %d ticks",
+                    link.getRttMillis(), link.getStalls(), link.getDelay());
         }
-        repaint();
     }
-    
-    private void handleInput() {
-        // Player 1 (Space)
-        if (keys[KeyEvent.VK_SPACE]) {
-            if (p1JumpReady) {
-                bird1.jump();
-                spawnParticles(bird1.getBounds().x, bird1.getBounds().y + 10, Color.WHITE, 5);
-                p1JumpReady = false; // Require release to jump again
+
+    // Spectating: applies whatever the broadcaster has sent since the last tick
+    private void watchTick() {
+        if (watchEnded) return;
+        try {
+            if (!watching.poll()) {
+                endWatching("Broadcast ended");
+                return;
             }
-        } else {
-            p1JumpReady = true;
+        } catch (IOException e) {
+            endWatching("Network error: " + e.getMessage());
+            return;
         }
-        
-        // Player 2 (Up Arrow)
-        if (keys[KeyEvent.VK_UP]) {
-            if (p2JumpReady) {
-                bird2.jump();
-                spawnParticles(bird2.getBounds().x, bird2.getBounds().y + 10, Color.WHITE, 5);
-                p2JumpReady = false; // Require release to jump again
-            }
-        } else {
-            p2JumpReady = true;
+        if (watching.isSynced() && bgScrollX % 25 == 0) {
+            status = String.format("Spectating  tick %d  %.1f KB received",
+                    watching.getTick(), watching.getBytesReceived() / 1024.0);
         }
     }
-    
-    private void spawnParticles(int x, int y, Color color, int count) {
-        for (int i = 0; i < count; i++) {
-            particles.add(new Particle(x, y, color, 20, 3));
+
+    // Stops polling but keeps the client, so publishFrame goes on showing the last state it had
+    private void endWatching(String reason) {
+        status = reason;
+        watchEnded = true;
+        try {
+            watching.close();
+        } catch (IOException e) {
+            // Already gone
         }
     }
 
-    private void checkCollisions() {
-        boolean crash = false;
-        
-        // Floor/Ceiling collision
-        if (bird1.getY() + 20 >= HEIGHT || bird1.getY() <= 0) {
-            if (!bird1.isDead()) {
-                bird1.setDead(true);
-                spawnParticles(bird1.getBounds().x, bird1.getBounds().y, NEON_PINK, 20);
-                crash = true;
+    // Either jump key works for the local bird online; drainInput forgets presses every tick, stalled or not
+    private void holdLocalJump() {
+        for (int i = 0; i < JUMP_KEYS.length; i++) {
+            if (jumpPressed[i] && !onlineJump) {
+                onlineJump = true;
+                onlineJumpAt = jumpPressedAt[i];
             }
         }
-        if (bird2.getY() + 20 >= HEIGHT || bird2.getY() <= 0) {
-            if (!bird2.isDead()) {
-                bird2.setDead(true);
-                spawnParticles(bird2.getBounds().x, bird2.getBounds().y, NEON_CYAN, 20);
-                crash = true;
+    }
+
+    // The held press, if any, for the tick that is about to run
+    private boolean takeLocalJump() {
+        if (!onlineJump) return false;
+        onlineJump = false;
+        applied(onlineJumpAt);
+        return true;
+    }
+
+    // Runs once, on the tick a round ends
+    private void roundOver() {
+        if (recorder != null) {
+            saveReplay(recorder.finish(engine));
+        }
+        // Watching a replay doesn't set new results; appends are memory writes, so they're fine on this thread
+        if (leaderboard != null && replay == null) {
+            try {
+                for (int i = 0; i < engine.getBirdCount(); i++) {
+                    leaderboard.add(engine.getBirds().getName(i), engine.getScore(i), engine.getTicks(), engine.getSeed());
+                }
+            } catch (IllegalStateException e) {
+                // The file couldn't grow; play on without it, as when it can't be opened
+                Throwable reason = e.getCause() != null ? e.getCause() : e;
+                System.err.println("Leaderboard disabled: " + reason.getMessage());
+                leaderboard = null;
             }
         }
+    }
 
-        // Pipe collision
-        for (Pipe pipe : pipes) {
-            if (pipe.getTopBounds().intersects(bird1.getBounds()) || pipe.getBottomBounds().intersects(bird1.getBounds())) {
-                if (!bird1.isDead()) {
-                    bird1.setDead(true);
-                    spawnParticles(bird1.getBounds().x, bird1.getBounds().y, NEON_PINK, 20);
-                    crash = true;
-                }
+    // Writes off the sim thread so a slow disk can't stall a tick
+    private void saveReplay(Replay recording) {
+        Path path = recordPath;
+        new Thread(() -> {
+            try {
+                recording.write(path);
+            } catch (IOException e) {
+                System.err.println("Could not save replay to " + path + ": " + e.getMessage());
             }
-            if (pipe.getTopBounds().intersects(bird2.getBounds()) || pipe.getBottomBounds().intersects(bird2.getBounds())) {
-                if (!bird2.isDead()) {
-                    bird2.setDead(true);
-                    spawnParticles(bird2.getBounds().x, bird2.getBounds().y, NEON_CYAN, 20);
-                    crash = true;
+        }, "flappyduo-replay-writer").start();
+    }
+
+    /**
+     * Takes every key event stamped up to the end of this tick's step off the
+     * queue. A press counts once even if it was released again before the tick
+     * ran; later events wait for the tick they belong to.
+     */
+    private void drainInput(long tickTime) {
+        Arrays.fill(jumpPressed, false);
+        while (input.hasEventBefore(tickTime)) {
+            int i = jumpIndex(input.peekKey());
+            boolean down = input.peekPressed();
+            if (i >= 0) {
+                // Key repeat sends more presses without releases; those don't count
+                if (down && !jumpHeld[i] && !jumpPressed[i]) {
+                    jumpPressed[i] = true;
+                    jumpPressedAt[i] = input.peekTime();
                 }
+                jumpHeld[i] = down;
             }
+            input.poll();
         }
-        
-        if (crash) Sound.playCrash();
+    }
 
-        if (bird1.isDead() && bird2.isDead()) {
-            gameOver = true;
+    private void handleInput() {
+        int players = Math.min(JUMP_KEYS.length, engine.getBirdCount());
+        for (int i = 0; i < players; i++) {
+            if (jumpPressed[i]) {
+                engine.jump(i);
+                applied(jumpPressedAt[i]);
+            }
         }
     }
-    
-    private void updateScore() {
-        for (Pipe pipe : pipes) {
-             if (!pipe.isPassed() && pipe.getX() + pipe.getWidth() < 100) {
-                 boolean scored = false;
-                 if (!bird1.isDead()) { score1++; scored = true; }
-                 if (!bird2.isDead()) { score2++; scored = true; }
-                 if (scored) Sound.playScore();
-                 pipe.setPassed(true);
-             }
+
+    // Times a press from its key event to the tick that uses it and keeps it for the input-to-frame timer
+    private void applied(long pressedAt) {
+        metrics.inputLatency.record(System.nanoTime() - pressedAt);
+        if (inputAt == 0 || pressedAt < inputAt) inputAt = pressedAt;
+    }
+
+    private static int jumpIndex(int key) {
+        for (int i = 0; i < JUMP_KEYS.length; i++) {
+            if (JUMP_KEYS[i] == key) return i;
         }
+        return -1;
+    }
+
+    @Override
+    public void onJump(int bird) {
+        Sound.playJump();
+    }
+
+    @Override
+    public void onScore() {
+        Sound.playScore();
+    }
+
+    @Override
+    public void onCrash() {
+        Sound.playCrash();
     }
 
     private void startGame() {
@@ -333,38 +520,43 @@ public class GamePanel extends JPanel implements ActionListener, KeyListener {
         if (p2Input.length() > 0) player2Name = p2Input.toString();
         
         // Re-init birds with names
-        bird1 = new Bird(100, HEIGHT / 2, NEON_PINK, player1Name);
-        bird2 = new Bird(100, HEIGHT / 2 + 50, NEON_CYAN, player2Name);
-        
-        pipes.clear();
-        particles.clear();
-        score1 = 0;
-        score2 = 0;
-        ticks = 0;
+        if (course != null) {
+            engine.start(course.getSeed(), player1Name, player2Name);
+        } else {
+            engine.start(player1Name, player2Name);
+        }
         running = true;
-        gameOver = false;
         inMenu = false;
-        
-        // Reset difficulty
-        Pipe.speed = 5;
-        currentSpawnRate = INITIAL_SPAWN_RATE;
-        
-        // Reset jump flags
-        p1JumpReady = true;
-        p2JumpReady = true;
     }
 
     private void resetGame() {
         inMenu = true;
         running = false;
-        gameOver = false;
+        replay = null;
         // Don't clear names
     }
 
     @Override
     public void keyPressed(KeyEvent e) {
+        if (!ready && e.getKeyCode() != KeyEvent.VK_F3) return; // Still loading
+        // Jump keys skip the state lock, so a tick in progress can't hold up their timestamp
+        if (!inMenu && jumpIndex(e.getKeyCode()) >= 0) {
+            input.offer(e.getKeyCode(), true, System.nanoTime());
+            return;
+        }
+        synchronized (stateLock) {
+            handleKeyPressed(e);
+        }
+    }
+
+    private void handleKeyPressed(KeyEvent e) {
         int key = e.getKeyCode();
 
+        if (key == KeyEvent.VK_F3) {
+            showMetrics = !showMetrics;
+            return;
+        }
+
         if (inMenu) {
             if (key == KeyEvent.VK_ENTER) {
                 startGame();
@@ -380,16 +572,13 @@ public class GamePanel extends JPanel implements ActionListener, KeyListener {
                      else if (!typingP1 && p2Input.length() < 10) p2Input.append(c);
                 }
             }
+            p1Text = p1Input.toString();
+            p2Text = p2Input.toString();
         } else {
-            if (gameOver) {
-                if (key == KeyEvent.VK_ENTER) {
+            if (engine.isGameOver()) {
+                if (key == KeyEvent.VK_ENTER && link == null && watching == null) { // Online matches are a single round
                     resetGame();
                 }
-            } else {
-                // Track key state for game loop
-                if (key < keys.length) {
-                    keys[key] = true;
-                }
             }
         }
     }
@@ -397,8 +586,8 @@ public class GamePanel extends JPanel implements ActionListener, KeyListener {
     @Override
     public void keyReleased(KeyEvent e) {
         int key = e.getKeyCode();
-        if (key < keys.length) {
-            keys[key] = false;
+        if (jumpIndex(key) >= 0) {
+            input.offer(key, false, System.nanoTime());
         }
     }
 
@@ -0,0 +1,370 @@
+package com.flappyduo;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * All Java2D drawing for the game. Works purely from published {@link FrameState}s,
+ * so it can paint into a Swing component or any off-screen image.
+ */
+public class GameRenderer {
+
+    private static final int WIDTH = GameEngine.WIDTH;
+    private static final int HEIGHT = GameEngine.HEIGHT;
+
+    // Tokyo Night Colors
+    static final Color BG_COLOR = new Color(26, 27, 38); // Deep dark blue/black
+    static final Color NEON_PINK = new Color(255, 0, 124);
+    static final Color NEON_CYAN = new Color(0, 255, 255);
+    static final Color TEXT_COLOR = new Color(192, 202, 245);
+
+    private static final Color[] BIRD_COLORS = { NEON_PINK, NEON_CYAN };
+    private static final Color[] WING_COLORS = { NEON_PINK.brighter(), NEON_CYAN.brighter() };
+    private static final int HUD_MAX_LINES = (HEIGHT - 30) / 30 + 1; // Score lines that fit on screen
+    private static final int LEADER_LINES = 5; // Leaderboard entries shown on the game over screen
+    private static final int LEADER_NAME_CHARS = 12;
+    private static final int LEADERS_LEFT = WIDTH / 2 - 130;
+    private static final int LEADERS_RIGHT = WIDTH / 2 + 130;
+    private static final Color[] PARTICLE_COLORS = { Color.WHITE, NEON_PINK, NEON_CYAN };
+
+    // Particles are drawn in batches that share one of these composites
+    private static final int ALPHA_BUCKETS = 16;
+    private static final AlphaComposite[] ALPHA_COMPOSITES = new AlphaComposite[ALPHA_BUCKETS];
+    static final int REDUCED_PARTICLES = 256; // Drawn at most from QualityGovernor.FEWER_PARTICLES on
+
+    static {
+        for (int b = 0; b < ALPHA_BUCKETS; b++) {
+            ALPHA_COMPOSITES[b] = AlphaComposite.getInstance(AlphaComposite.SRC_OVER, (b + 1f) / ALPHA_BUCKETS);
+        }
+    }
+
+    // Per-layer paint timers; all null unless metrics are attached
+    private LatencyHistogram timeBackground, timePipes, timeBirds, timeParticles, timeText;
+
+    private final BackgroundLayers background = new BackgroundLayers();
+    private final RenderResources resources = new RenderResources(BIRD_COLORS, WING_COLORS, PARTICLE_COLORS);
+    private int quality = QualityGovernor.FULL; // Each level drops one more effect
+
+    // Scratch space for bucketing particles by alpha; grows only when the particle count does
+    private int[] particleBucket = new int[0];
+    private int[] particleOrder = new int[0];
+    private final int[] bucketStart = new int[ALPHA_BUCKETS + 1];
+
+    // HUD and menu strings are rebuilt only when what they show changes
+    private String[] labelName = new String[0];
+    private BufferedImage[] labelImage = new BufferedImage[0];
+    private String[] hudText = new String[0];
+    private String[] hudName = new String[0];
+    private int[] hudScore = new int[0];
+    private String menuP1, menuP2, menuP1Text, menuP2Text;
+    private boolean menuTypingP1;
+    private List<Leaderboard.Entry> leaders;
+    private final String[] leaderName = new String[LEADER_LINES];
+    private final String[] leaderScore = new String[LEADER_LINES];
+    private final int[] leaderScoreX = new int[LEADER_LINES]; // Scores are right-aligned
+    private int leaderCount;
+
+    // Centered text positions, measured once
+    private int titleX = -1, promptX, startX, switchX, gameOverX, restartX;
+
+    static Color birdColor(int bird) {
+        return BIRD_COLORS[bird % BIRD_COLORS.length];
+    }
+
+    static int particlePalette(int color) {
+        return color == ParticleSystem.COLOR_PUFF ? 0 : 1 + (color - ParticleSystem.COLOR_BIRD) % BIRD_COLORS.length;
+    }
+
+    public void setMetrics(FrameMetrics metrics) {
+        timeBackground = metrics.paintBackground;
+        timePipes = metrics.paintPipes;
+        timeBirds = metrics.paintBirds;
+        timeParticles = metrics.paintParticles;
+        timeText = metrics.paintText;
+    }
+
+    // Painting thread only; takes effect from the next frame
+    public void setQuality(int level) {
+        quality = level;
+    }
+
+    public int getQuality() {
+        return quality;
+    }
+
+    // Paints one complete frame at its final positions
+    public void render(Graphics2D g2d, FrameState frame) {
+        render(g2d, frame, 1f);
+    }
+
+    /**
+     * Paints one complete frame with everything that moves placed {@code alpha}
+     * of the way from its position before the frame's last tick to its position
+     * after it.
+     */
+    public void render(Graphics2D g2d, FrameState frame, float alpha) {
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, quality >= QualityGovernor.NO_ANTIALIAS
+                ? RenderingHints.VALUE_ANTIALIAS_OFF : RenderingHints.VALUE_ANTIALIAS_ON);
+
+        long t = System.nanoTime();
+        drawBackground(g2d, frame); // Scrolls one pixel a tick, so there is nothing in between to draw
+        t = lap(timeBackground, t);
+
+        if (frame.inMenu) {
+            drawMenu(g2d, frame);
+        } else {
+            drawGame(g2d, frame, frame.moved ? alpha : 1f);
+            t = System.nanoTime(); // drawGame timed its own layers
+            drawHud(g2d, frame);
+            if (frame.gameOver) {
+                drawGameOver(g2d, frame);
+            }
+        }
+
+        if (frame.status != null) {
+            g2d.setColor(TEXT_COLOR);
+            g2d.setFont(RenderResources.NAME_FONT);
+            g2d.drawString(frame.status, 10, HEIGHT - 10);
+        }
+        lap(timeText, t);
+    }
+
+    // Records the time since start if timing is on; returns the new start
+    private static long lap(LatencyHistogram timer, long start) {
+        long now = System.nanoTime();
+        if (timer != null) timer.record(now - start);
+        return now;
+    }
+
+    // Position alpha of the way from prev to cur, rounded to the pixel it is drawn at
+    private static int lerp(float prev, float cur, float alpha) {
+        return Math.round(prev + (cur - prev) * alpha);
+    }
+
+    public void drawBackground(Graphics2D g2d, FrameState frame) {
+        background.draw(g2d, frame.bgScrollX);
+    }
+
+    public void drawMenu(Graphics2D g2d, FrameState frame) {
+        measureText(g2d);
+        updateMenuText(frame);
+        boolean typingP1 = frame.typingP1;
+
+        g2d.setColor(TEXT_COLOR);
+        g2d.setFont(RenderResources.TITLE_FONT);
+        g2d.drawString("FLAPPY DUO: TOKYO NIGHT", titleX, 150);
+
+        g2d.setFont(RenderResources.MENU_FONT);
+        g2d.drawString("Enter Player Names:", promptX, 250);
+
+        // Input boxes
+        g2d.setColor(typingP1 ? NEON_PINK : Color.GRAY);
+        g2d.drawRect(WIDTH / 2 - 150, 280, 300, 40);
+        g2d.setColor(TEXT_COLOR);
+        g2d.drawString(menuP1Text, WIDTH / 2 - 140, 305);
+        g2d.drawString("(Spacebar Player)", WIDTH / 2 + 160, 305);
+
+        g2d.setColor(!typingP1 ? NEON_CYAN : Color.GRAY);
+        g2d.drawRect(WIDTH / 2 - 150, 350, 300, 40);
+        g2d.setColor(TEXT_COLOR);
+        g2d.drawString(menuP2Text, WIDTH / 2 - 140, 375);
+        g2d.drawString("(Up Arrow Player)", WIDTH / 2 + 160, 375);
+
+        g2d.setColor(Color.WHITE);
+        g2d.drawString("Press ENTER to Start", startX, 500);
+        g2d.drawString("Press TAB to switch input", switchX, 530);
+    }
+
+    public void drawGame(Graphics2D g2d, FrameState frame) {
+        drawGame(g2d, frame, 1f);
+    }
+
+    public void drawGame(Graphics2D g2d, FrameState frame, float alpha) {
+        long t = System.nanoTime();
+        boolean flat = quality >= QualityGovernor.FLAT_PIPES;
+        for (int i = 0; i < frame.pipeCount; i++) {
+            int x = lerp(frame.pipePrevX[i], frame.pipeX[i], alpha);
+            if (flat) {
+                resources.drawFlatPipe(g2d, x, frame.pipeGapY[i]);
+            } else {
+                resources.drawPipe(g2d, x, frame.pipeGapY[i]);
+            }
+        }
+        t = lap(timePipes, t);
+
+        updateLabels(frame);
+        boolean glow = quality < QualityGovernor.NO_GLOW;
+        for (int i = 0; i < frame.birdCount; i++) {
+            int x = frame.birdX[i];
+            int y = lerp(frame.birdPrevY[i], frame.birdY[i], alpha);
+            resources.drawBird(g2d, x, y, i, frame.birdWing[i], frame.birdDead[i], glow);
+            g2d.drawImage(labelImage[i], x - 5, y - 10 - RenderResources.NAME_ASCENT, null);
+        }
+        t = lap(timeBirds, t);
+
+        drawParticles(g2d, frame, alpha);
+        lap(timeParticles, t);
+    }
+
+    public void drawHud(Graphics2D g2d, FrameState frame) {
+        // Score
+        updateHudText(frame);
+        g2d.setFont(RenderResources.HUD_FONT);
+        int lines = Math.min(frame.birdCount, HUD_MAX_LINES);
+        for (int i = 0; i < lines; i++) {
+            g2d.setColor(birdColor(i));
+            g2d.drawString(hudText[i], 20, 30 + 30 * i);
+        }
+    }
+
+    public void drawGameOver(Graphics2D g2d) {
+        measureText(g2d);
+        g2d.setColor(RenderResources.OVERLAY_COLOR);
+        g2d.fillRect(0, 0, WIDTH, HEIGHT);
+
+        g2d.setColor(Color.WHITE);
+        g2d.setFont(RenderResources.GAME_OVER_FONT);
+        g2d.drawString("GAME OVER", gameOverX, HEIGHT / 2 - 50);
+
+        g2d.setFont(RenderResources.MENU_FONT);
+        g2d.drawString("Press ENTER to Restart", restartX, HEIGHT / 2 + 20);
+    }
+
+    // Game over screen plus the best results so far, if a leaderboard is attached
+    public void drawGameOver(Graphics2D g2d, FrameState frame) {
+        drawGameOver(g2d);
+        updateLeaderText(g2d, frame);
+        if (leaderCount == 0) return;
+
+        g2d.setFont(RenderResources.MENU_FONT);
+        g2d.setColor(NEON_CYAN);
+        g2d.drawString("TOP SCORES", LEADERS_LEFT, HEIGHT / 2 + 70);
+        g2d.setColor(TEXT_COLOR);
+        for (int i = 0; i < leaderCount; i++) {
+            int y = HEIGHT / 2 + 95 + 22 * i;
+            g2d.drawString(leaderName[i], LEADERS_LEFT, y);
+            g2d.drawString(leaderScore[i], leaderScoreX[i], y);
+        }
+    }
+
+    // Counting-sorts particles into alpha buckets so each bucket needs one composite switch
+    private void drawParticles(Graphics2D g2d, FrameState frame, float alpha) {
+        int n = frame.particleCount;
+        if (n == 0) return;
+        // At reduced quality an even spread of at most REDUCED_PARTICLES, so bursts thin out instead of vanishing
+        int stride = quality >= QualityGovernor.FEWER_PARTICLES ? (n + REDUCED_PARTICLES - 1) / REDUCED_PARTICLES : 1;
+        if (particleOrder.length < n) {
+            particleBucket = new int[Math.max(n, particleOrder.length * 2)];
+            particleOrder = new int[particleBucket.length];
+        }
+
+        Arrays.fill(bucketStart, 0);
+        for (int i = 0; i < n; i += stride) {
+            int b = (int) (frame.particleAlpha[i] * ALPHA_BUCKETS) - 1;
+            b = Math.max(0, Math.min(ALPHA_BUCKETS - 1, b));
+            particleBucket[i] = b;
+            bucketStart[b + 1]++;
+        }
+        for (int b = 0; b < ALPHA_BUCKETS; b++) {
+            bucketStart[b + 1] += bucketStart[b];
+        }
+        for (int i = 0; i < n; i += stride) {
+            particleOrder[bucketStart[particleBucket[i]]++] = i;
+        }
+
+        Composite saved = g2d.getComposite();
+        int start = 0;
+        for (int b = 0; b < ALPHA_BUCKETS; b++) {
+            int end = bucketStart[b]; // Shifted to the bucket's end by the placement pass
+            if (end == start) continue;
+            g2d.setComposite(ALPHA_COMPOSITES[b]);
+            for (int k = start; k < end; k++) {
+                int i = particleOrder[k];
+                int palette = particlePalette(frame.particleColor[i]);
+                int size = frame.particleSize[i];
+                int x = lerp(frame.particlePrevX[i], frame.particleX[i], alpha);
+                int y = lerp(frame.particlePrevY[i], frame.particleY[i], alpha);
+                BufferedImage dot = resources.particleDot(palette, size);
+                if (dot != null) {
+                    g2d.drawImage(dot, x, y, null);
+                } else if (size > 0) {
+                    g2d.setColor(PARTICLE_COLORS[palette]);
+                    g2d.fillOval(x, y, size, size);
+                }
+            }
+            start = end;
+        }
+        g2d.setComposite(saved);
+    }
+
+    // Name labels are rendered to images once per name instead of laying out text every frame
+    private void updateLabels(FrameState frame) {
+        int n = frame.birdCount;
+        if (labelName.length < n) {
+            labelName = Arrays.copyOf(labelName, n);
+            labelImage = Arrays.copyOf(labelImage, n);
+        }
+        for (int i = 0; i < n; i++) {
+            if (labelImage[i] == null || labelName[i] != frame.birdName[i]) {
+                labelName[i] = frame.birdName[i];
+                labelImage[i] = RenderResources.renderNameLabel(labelName[i]);
+            }
+        }
+    }
+
+    private void updateHudText(FrameState frame) {
+        int n = frame.birdCount;
+        if (hudText.length < n) {
+            hudText = Arrays.copyOf(hudText, n);
+            hudName = Arrays.copyOf(hudName, n);
+            hudScore = Arrays.copyOf(hudScore, n);
+        }
+        for (int i = 0; i < n; i++) {
+            if (hudText[i] == null || hudName[i] != frame.birdName[i] || hudScore[i] != frame.score[i]) {
+                hudName[i] = frame.birdName[i];
+                hudScore[i] = frame.score[i];
+                hudText[i] = hudName[i] + ": " + hudScore[i];
+            }
+        }
+    }
+
+    // The leaderboard publishes a new list whenever its top changes, so comparing lists is enough
+    private void updateLeaderText(Graphics2D g2d, FrameState frame) {
+        if (frame.leaders == leaders) return;
+        leaders = frame.leaders;
+        leaderCount = leaders != null ? Math.min(leaders.size(), LEADER_LINES) : 0;
+        FontMetrics fm = g2d.getFontMetrics(RenderResources.MENU_FONT);
+        for (int i = 0; i < leaderCount; i++) {
+            Leaderboard.Entry e = leaders.get(i);
+            String name = e.getName();
+            if (name.length() > LEADER_NAME_CHARS) name = name.substring(0, LEADER_NAME_CHARS);
+            leaderName[i] = (i + 1) + ". " + name;
+            leaderScore[i] = Integer.toString(e.getScore());
+            leaderScoreX[i] = LEADERS_RIGHT - fm.stringWidth(leaderScore[i]);
+        }
+    }
+
+    private void updateMenuText(FrameState frame) {
+        if (menuP1Text == null || frame.p1Input != menuP1 || frame.p2Input != menuP2 || frame.typingP1 != menuTypingP1) {
+            menuP1 = frame.p1Input;
+            menuP2 = frame.p2Input;
+            menuTypingP1 = frame.typingP1;
+            menuP1Text = menuP1 + (menuTypingP1 ? "|" : "");
+            menuP2Text = menuP2 + (!menuTypingP1 ? "|" : "");
+        }
+    }
+
+    // Same positions as the original layout, which measured the menu lines with the title font
+    private void measureText(Graphics2D g2d) {
+        if (titleX >= 0) return;
+        FontMetrics fm = g2d.getFontMetrics(RenderResources.TITLE_FONT);
+        titleX = (WIDTH - fm.stringWidth("FLAPPY DUO: TOKYO NIGHT")) / 2;
+        promptX = (WIDTH - fm.stringWidth("Enter Player Names:")) / 2 - 50;
+        startX = (WIDTH - fm.stringWidth("Press ENTER to Start")) / 2 - 40;
+        switchX = (WIDTH - fm.stringWidth("Press TAB to switch input")) / 2 - 50;
+        gameOverX = (WIDTH - g2d.getFontMetrics(RenderResources.GAME_OVER_FONT).stringWidth("GAME OVER")) / 2;
+        restartX = (WIDTH - g2d.getFontMetrics(RenderResources.MENU_FONT).stringWidth("Press ENTER to Restart")) / 2;
+    }
+}
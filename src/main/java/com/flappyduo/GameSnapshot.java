@@ -0,0 +1,99 @@
+package com.flappyduo;
+
+import java.util.Arrays;
+
+/**
+ * Preallocated copy of everything that decides how a round continues: the
+ * engine's counters and place in the course, every bird, pipe and particle.
+ * Filled by {@link GameEngine#save} and read back by {@link GameEngine#restore}.
+ * Arrays only grow, so once warmed up saving and restoring never allocate.
+ */
+public class GameSnapshot {
+
+    boolean valid;
+
+    // Engine
+    int ticks;
+    boolean gameOver;
+    int nextPipe; // Speed and spacing follow from the tick, gaps from the course
+
+    // Birds
+    int birdCount;
+    int birdsAlive;
+    int birdX;
+    int[] birdY = new int[2];
+    int[] birdPrevY = new int[2];
+    int[] birdVelocity = new int[2];
+    int[] birdWing = new int[2];
+    int[] birdWingTimer = new int[2];
+    boolean[] birdDead = new boolean[2];
+    int[] score = new int[2];
+
+    // Pipes, leftmost first
+    int pipeCount;
+    int[] pipeX = new int[16];
+    int[] pipePrevX = new int[16];
+    int[] pipeGapY = new int[16];
+    boolean[] pipePassed = new boolean[16];
+
+    // Particles
+    int particleCount;
+    long particleRandomState;
+    float[] particleX = new float[64];
+    float[] particleY = new float[64];
+    float[] particleVx = new float[64];
+    float[] particleVy = new float[64];
+    float[] particleSize = new float[64];
+    int[] particleLife = new int[64];
+    int[] particleMaxLife = new int[64];
+    int[] particleColor = new int[64];
+
+    public boolean isValid() {
+        return valid;
+    }
+
+    // Tick the saved state was at
+    public int getTicks() {
+        return ticks;
+    }
+
+    void ensureBirds(int n) {
+        if (birdY.length < n) {
+            int cap = Math.max(n, birdY.length * 2);
+            birdY = Arrays.copyOf(birdY, cap);
+            birdPrevY = Arrays.copyOf(birdPrevY, cap);
+            birdVelocity = Arrays.copyOf(birdVelocity, cap);
+            birdWing = Arrays.copyOf(birdWing, cap);
+            birdWingTimer = Arrays.copyOf(birdWingTimer, cap);
+            birdDead = Arrays.copyOf(birdDead, cap);
+            score = Arrays.copyOf(score, cap);
+        }
+        birdCount = n;
+    }
+
+    void ensurePipes(int n) {
+        if (pipeX.length < n) {
+            int cap = Math.max(n, pipeX.length * 2);
+            pipeX = Arrays.copyOf(pipeX, cap);
+            pipePrevX = Arrays.copyOf(pipePrevX, cap);
+            pipeGapY = Arrays.copyOf(pipeGapY, cap);
+            pipePassed = Arrays.copyOf(pipePassed, cap);
+        }
+        pipeCount = n;
+    }
+
+    void ensureParticles(int n) {
+        if (particleX.length < n) {
+            int cap = Math.max(n, particleX.length * 2);
+            particleX = Arrays.copyOf(particleX, cap);
+            particleY = Arrays.copyOf(particleY, cap);
+            particleVx = Arrays.copyOf(particleVx, cap);
+            particleVy = Arrays.copyOf(particleVy, cap);
+            particleSize = Arrays.copyOf(particleSize, cap);
+            particleLife = Arrays.copyOf(particleLife, cap);
+            particleMaxLife = Arrays.copyOf(particleMaxLife, cap);
+            particleColor = Arrays.copyOf(particleColor, cap);
+        }
+        particleCount = n;
+    }
+}
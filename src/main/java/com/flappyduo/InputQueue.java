@@ -0,0 +1,129 @@
+package com.flappyduo;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free single-producer, single-consumer queue of timestamped key events.
+ * The EDT offers presses and releases as they arrive; the sim thread drains
+ * them at the start of each tick, so neither side ever waits for the other's
+ * lock. Events live in preallocated parallel arrays and nothing is allocated
+ * per event.
+ *
+ * <p>The EDT never waits either. If the sim thread falls a whole queue behind,
+ * presses are coalesced into one waiting press per key until it catches up,
+ * and releases are dropped; a tick only asks whether a key went down.
+ */
+public class InputQueue {
+
+    private static final int DEFAULT_CAPACITY = 256; // Far more than anyone can type in one tick
+    private static final int OVERFLOW_KEYS = 16; // Distinct keys that can have a press waiting while full
+
+    private final int mask;
+    private final long[] time;
+    private final int[] key;
+    private final boolean[] pressed;
+
+    // Free-running counters; the slot is the counter masked by the capacity
+    private final AtomicLong head = new AtomicLong(); // Next event to read; written by the consumer
+    private final AtomicLong tail = new AtomicLong(); // Next slot to fill; written by the producer
+
+    // Presses that came while the queue was full, the earliest per key; a time of 0 means none is waiting
+    private final int[] overflowKey = new int[OVERFLOW_KEYS]; // Set once per entry by the producer
+    private final AtomicLongArray overflowTime = new AtomicLongArray(OVERFLOW_KEYS); // Cleared by the consumer
+    private int overflowKeys; // Entries handed out; producer only
+    private int overflowSlot = -1; // Entry the next peek and poll refer to, or -1 for the queue; consumer only
+
+    public InputQueue() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public InputQueue(int capacity) {
+        if (Integer.bitCount(capacity) != 1) throw new IllegalArgumentException("capacity must be a power of two: " + capacity);
+        mask = capacity - 1;
+        time = new long[capacity];
+        key = new int[capacity];
+        pressed = new boolean[capacity];
+    }
+
+    /**
+     * Adds an event stamped with {@code nanos} ({@link System#nanoTime()}). Producer
+     * thread only; never waits. While the consumer is a whole queue behind, a
+     * press waits beside the queue unless one for the same key already does,
+     * and a release is dropped. Events stay in the side table until the consumer
+     * has taken every waiting press, so they are never read out of order.
+     */
+    public void offer(int keyCode, boolean down, long nanos) {
+        long t = tail.get();
+        if (t - head.get() > mask || overflowing()) {
+            if (down) coalesce(keyCode, nanos);
+            return;
+        }
+        int slot = (int) t & mask;
+        time[slot] = nanos;
+        key[slot] = keyCode;
+        pressed[slot] = down;
+        tail.lazySet(t + 1); // Publishes the slot's contents along with the new tail
+    }
+
+    private boolean overflowing() {
+        for (int i = 0; i < overflowKeys; i++) {
+            if (overflowTime.get(i) != 0) return true;
+        }
+        return false;
+    }
+
+    private void coalesce(int keyCode, long nanos) {
+        int i = 0;
+        while (i < overflowKeys && overflowKey[i] != keyCode) {
+            i++;
+        }
+        if (i == overflowKeys) {
+            if (i == OVERFLOW_KEYS) return; // Only a keyboard mash gets here; nothing the game listens to
+            overflowKey[i] = keyCode;
+            overflowKeys++;
+        }
+        if (overflowTime.get(i) == 0) overflowTime.set(i, nanos); // Publishes the key along with the time
+    }
+
+    // Whether an event stamped at or before the given time is waiting; consumer thread only
+    public boolean hasEventBefore(long nanos) {
+        overflowSlot = -1;
+        long h = head.get();
+        if (h != tail.get()) return time[(int) h & mask] <= nanos;
+
+        // Waiting presses are newer than anything that was queued before them, so they come after the queue
+        long earliest = 0;
+        for (int i = 0; i < OVERFLOW_KEYS; i++) {
+            long at = overflowTime.get(i);
+            if (at != 0 && at <= nanos && (overflowSlot < 0 || at < earliest)) {
+                overflowSlot = i;
+                earliest = at;
+            }
+        }
+        return overflowSlot >= 0;
+    }
+
+    // Fields of the oldest event; only valid after hasEventBefore() returned true
+    public long peekTime() {
+        return overflowSlot >= 0 ? overflowTime.get(overflowSlot) : time[(int) head.get() & mask];
+    }
+
+    public int peekKey() {
+        return overflowSlot >= 0 ? overflowKey[overflowSlot] : key[(int) head.get() & mask];
+    }
+
+    public boolean peekPressed() {
+        return overflowSlot >= 0 || pressed[(int) head.get() & mask];
+    }
+
+    // Drops the oldest event once its fields have been read
+    public void poll() {
+        if (overflowSlot >= 0) {
+            overflowTime.set(overflowSlot, 0);
+            overflowSlot = -1;
+        } else {
+            head.lazySet(head.get() + 1);
+        }
+    }
+}
@@ -0,0 +1,270 @@
+package com.flappyduo;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.zip.CRC32;
+
+/**
+ * Every finished result, appended as fixed-size records to a memory-mapped
+ * file. Each record starts with a CRC32 of the rest of it, written last, so a
+ * record torn by a crash or power loss fails its check. Opening scans records
+ * up to the first one that fails and rebuilds the top-K heap and the per-player
+ * bests from them; the next append overwrites whatever was torn.
+ *
+ * <p>Appends are memory writes and cost no system call; {@link #force()} and
+ * {@link #close()} push them to disk. The sorted top list is an immutable
+ * snapshot, so the renderer can read it at any time without touching the file.
+ */
+public class Leaderboard implements Closeable {
+
+    public static final int DEFAULT_TOP = 10;
+
+    private static final int MAGIC = 0x46444C42; // "FDLB"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 64;
+    static final int RECORD_SIZE = 64;
+    private static final int GROW_RECORDS = 16384; // 1 MiB of records per remap
+
+    // Record layout; the CRC covers everything after it
+    private static final int CRC = 0;
+    private static final int SCORE = 4;
+    private static final int TICKS = 8;
+    private static final int SEED = 12;
+    private static final int TIME = 20;
+    private static final int NAME = 28; // Length byte, then UTF-8
+    static final int MAX_NAME_BYTES = RECORD_SIZE - NAME - 1;
+
+    private final FileChannel channel;
+    private final int topK;
+    private final CRC32 crc = new CRC32();
+    private final byte[] nameScratch = new byte[MAX_NAME_BYTES];
+    private MappedByteBuffer map;
+    private ByteBuffer view; // Duplicate of map for CRC ranges, so map's own position never moves
+    private int capacity; // Records the current mapping holds
+    private int count;
+
+    private final PriorityQueue<Entry> heap; // Worst of the top K on top
+    private final Map<String, Integer> best = new HashMap<>();
+    private volatile List<Entry> top = Collections.emptyList();
+
+    private Leaderboard(FileChannel channel, int topK) {
+        this.channel = channel;
+        this.topK = topK;
+        this.heap = new PriorityQueue<>(topK + 1, Leaderboard::compareScores);
+    }
+
+    public static Leaderboard open(Path path) throws IOException {
+        return open(path, DEFAULT_TOP);
+    }
+
+    public static Leaderboard open(Path path, int topK) throws IOException {
+        if (topK < 1) throw new IllegalArgumentException("topK must be positive: " + topK);
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            Leaderboard board = new Leaderboard(channel, topK);
+            board.load();
+            return board;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private void load() throws IOException {
+        long size = channel.size();
+        if (size == 0) {
+            remap(GROW_RECORDS);
+            map.putInt(0, MAGIC).putInt(4, VERSION).putInt(8, RECORD_SIZE);
+            return;
+        }
+        if (size < HEADER_SIZE) throw new IOException("Not a leaderboard file: too short");
+
+        remap((int) Math.max(GROW_RECORDS, (size - HEADER_SIZE) / RECORD_SIZE));
+        if (map.getInt(0) != MAGIC) throw new IOException("Not a leaderboard file");
+        if (map.getInt(4) != VERSION || map.getInt(8) != RECORD_SIZE) {
+            throw new IOException("Unsupported leaderboard version " + map.getInt(4));
+        }
+
+        while (count < capacity && valid(count)) {
+            index(read(count));
+            count++;
+        }
+        publishTop();
+    }
+
+    /**
+     * Appends one result and updates the top list and the player's best.
+     * Names longer than {@value #MAX_NAME_BYTES} UTF-8 bytes are cut short.
+     */
+    public synchronized void add(String name, int score, int ticks, long seed) {
+        if (count == capacity) {
+            try {
+                remap(capacity + GROW_RECORDS);
+            } catch (IOException e) {
+                throw new IllegalStateException("Could not grow leaderboard file", e);
+            }
+        }
+
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        int length = Math.min(bytes.length, MAX_NAME_BYTES);
+        long time = System.currentTimeMillis();
+
+        int at = offset(count);
+        map.putInt(at + SCORE, score);
+        map.putInt(at + TICKS, ticks);
+        map.putLong(at + SEED, seed);
+        map.putLong(at + TIME, time);
+        map.put(at + NAME, (byte) length);
+        for (int i = 0; i < MAX_NAME_BYTES; i++) {
+            map.put(at + NAME + 1 + i, i < length ? bytes[i] : 0);
+        }
+        map.putInt(at + CRC, checksum(count)); // Last, so a half-written record never checks out
+        count++;
+
+        Entry entry = new Entry(new String(bytes, 0, length, StandardCharsets.UTF_8), score, ticks, seed, time);
+        if (index(entry)) publishTop();
+    }
+
+    // Adds a result to the heap and the bests; true if the top list changed
+    private boolean index(Entry e) {
+        best.merge(e.name, e.score, Math::max);
+        if (heap.size() < topK) {
+            heap.add(e);
+            return true;
+        }
+        if (compareScores(e, heap.peek()) > 0) {
+            heap.poll();
+            heap.add(e);
+            return true;
+        }
+        return false;
+    }
+
+    private void publishTop() {
+        List<Entry> sorted = new ArrayList<>(heap);
+        sorted.sort(Collections.reverseOrder(Leaderboard::compareScores));
+        top = Collections.unmodifiableList(sorted);
+    }
+
+    // Higher score wins; on a tie the earlier result ranks higher
+    private static int compareScores(Entry a, Entry b) {
+        if (a.score != b.score) return Integer.compare(a.score, b.score);
+        return Long.compare(b.time, a.time);
+    }
+
+    // No force: the old mapping shares its pages with the new one and the OS still writes them back,
+    // so growing never waits for the disk (add() runs on the sim thread)
+    private void remap(int records) throws IOException {
+        map = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) records * RECORD_SIZE);
+        view = map.duplicate();
+        capacity = records;
+    }
+
+    private static int offset(int record) {
+        return HEADER_SIZE + record * RECORD_SIZE;
+    }
+
+    private int checksum(int record) {
+        int at = offset(record);
+        view.limit(at + RECORD_SIZE).position(at + SCORE);
+        crc.reset();
+        crc.update(view);
+        return (int) crc.getValue();
+    }
+
+    private boolean valid(int record) {
+        return map.getInt(offset(record) + CRC) == checksum(record);
+    }
+
+    private Entry read(int record) {
+        int at = offset(record);
+        int length = Math.min(map.get(at + NAME) & 0xFF, MAX_NAME_BYTES);
+        for (int i = 0; i < length; i++) {
+            nameScratch[i] = map.get(at + NAME + 1 + i);
+        }
+        return new Entry(new String(nameScratch, 0, length, StandardCharsets.UTF_8), map.getInt(at + SCORE),
+                map.getInt(at + TICKS), map.getLong(at + SEED), map.getLong(at + TIME));
+    }
+
+    // Best results first; an immutable snapshot that is replaced, never changed
+    public List<Entry> top() {
+        return top;
+    }
+
+    // Best score this player has ever had, or -1 if they have no results
+    public synchronized int best(String name) {
+        Integer score = best.get(name);
+        return score != null ? score : -1;
+    }
+
+    public synchronized int size() {
+        return count;
+    }
+
+    // Writes appended records through to the disk
+    public synchronized void force() {
+        map.force();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        map.force();
+        channel.close();
+    }
+
+    /** One finished result. */
+    public static final class Entry {
+        private final String name;
+        private final int score;
+        private final int ticks;
+        private final long seed;
+        private final long time;
+
+        Entry(String name, int score, int ticks, long seed, long time) {
+            this.name = name;
+            this.score = score;
+            this.ticks = ticks;
+            this.seed = seed;
+            this.time = time;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getScore() {
+            return score;
+        }
+
+        public int getTicks() {
+            return ticks;
+        }
+
+        public long getSeed() {
+            return seed;
+        }
+
+        // Wall-clock time of the result, in epoch milliseconds
+        public long getTime() {
+            return time;
+        }
+
+        @Override
+        public String toString() {
+            return name + " " + score;
+        }
+    }
+}
@@ -0,0 +1,340 @@
+package com.flappyduo;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.PortUnreachableException;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Two-player lockstep over a non-blocking UDP channel. Both peers run the same
+ * seeded engine and only exchange jump bits. A peer's input for tick t is
+ * sampled when it runs tick t - delay, so it normally arrives before it is
+ * needed. A tick only runs once both inputs for it are known; otherwise the
+ * peer stalls and tries again on the next call.
+ *
+ * <p>Every packet resends all inputs the other side has not acknowledged yet
+ * (up to {@value #MAX_BATCH} ticks as one bit mask), so lost packets need no
+ * explicit retransmission. Packets also carry a ping and an echo for round-trip
+ * time. The host plays bird 0 and the joining peer bird 1. Neither peer can
+ * get more than twice the input delay ahead of what the other has received, so
+ * the delay is capped at half a batch and every batch reaches back far enough.
+ * Packets that are too short or don't parse are dropped.
+ */
+public class LockstepLink implements Closeable {
+
+    public static final int DEFAULT_PORT = 24680;
+    public static final int DEFAULT_DELAY = 3; // Ticks; 60 ms at 50 Hz
+
+    private static final byte HELLO = 1;
+    private static final byte WELCOME = 2;
+    private static final byte INPUT = 3;
+
+    private static final int WINDOW = 256; // Ticks of input kept per side; a power of two
+    private static final int MAX_BATCH = 64; // Ticks per packet, one bit each
+    public static final int MAX_DELAY = MAX_BATCH / 2;
+    private static final int MAX_NAME_BYTES = 32;
+    private static final int INPUT_BYTES = 4 + 1 + 8 + 4 + 8 + 8 + 8; // After the type byte
+    private static final int WELCOME_BYTES = 8 + 4; // Before the name
+    private static final long PEER_TIMEOUT_NANOS = 5_000_000_000L;
+
+    private final DatagramChannel channel;
+    private final boolean host;
+    private final String localName;
+    private final ByteBuffer out = ByteBuffer.allocate(64);
+    private final ByteBuffer in = ByteBuffer.allocate(512);
+    private SocketAddress peer; // Known up front when joining, learned from HELLO when hosting
+
+    // Agreed at the handshake
+    private boolean connected;
+    private long seed;
+    private int delay;
+    private String remoteName;
+
+    // Inputs by tick; everything below the "known" marks has arrived
+    private final boolean[] local = new boolean[WINDOW];
+    private final boolean[] remote = new boolean[WINDOW];
+    private int localKnown;
+    private int remoteKnown;
+    private int peerAck; // First local tick the peer has not confirmed
+
+    // Round-trip measurement; timestamps are on this peer's clock, which starts at 1 so 0 can mean "none"
+    private final long epoch = System.nanoTime();
+    private long peerPing;       // Latest ping timestamp from the peer, echoed back
+    private long peerPingAt;     // When it arrived, so the peer can subtract our hold time
+    private long lastReceiveAt;
+    private double rttMillis = -1;
+
+    // Stats
+    private int stalls;
+    private long packetsSent, packetsReceived, bytesSent;
+
+    private LockstepLink(DatagramChannel channel, boolean host, String localName, long seed, int delay) {
+        this.channel = channel;
+        this.host = host;
+        this.localName = localName;
+        this.seed = seed;
+        this.delay = delay;
+    }
+
+    // Waits for a peer on the given port; the host picks the seed and the input delay
+    public static LockstepLink host(int port, String name, long seed, int delay) throws IOException {
+        DatagramChannel channel = DatagramChannel.open();
+        channel.configureBlocking(false);
+        channel.bind(new InetSocketAddress(port));
+        return new LockstepLink(channel, true, name, seed, Math.max(1, Math.min(delay, MAX_DELAY)));
+    }
+
+    public static LockstepLink join(InetSocketAddress hostAddress, String name) throws IOException {
+        DatagramChannel channel = DatagramChannel.open();
+        channel.configureBlocking(false);
+        channel.connect(hostAddress);
+        LockstepLink link = new LockstepLink(channel, false, name, 0, 0);
+        link.peer = hostAddress;
+        return link;
+    }
+
+    // Reads every waiting packet without blocking
+    public void receive() throws IOException {
+        while (true) {
+            in.clear();
+            SocketAddress from;
+            try {
+                from = channel.receive(in);
+            } catch (PortUnreachableException e) {
+                return; // Host not up yet; keep knocking
+            }
+            if (from == null) return;
+            in.flip();
+            if (!in.hasRemaining()) continue;
+            packetsReceived++;
+            lastReceiveAt = clock();
+
+            byte type = in.get();
+            if (type == HELLO && host) {
+                if (!connected) {
+                    String name = readName();
+                    if (name == null) continue;
+                    peer = from;
+                    remoteName = name;
+                    begin();
+                }
+                if (from.equals(peer)) sendWelcome(); // Repeated HELLOs mean our WELCOME got lost
+            } else if (type == WELCOME && !host) {
+                if (!connected && in.remaining() >= WELCOME_BYTES) {
+                    long welcomeSeed = in.getLong();
+                    int welcomeDelay = in.getInt();
+                    String name = readName();
+                    if (name == null || welcomeDelay < 1 || welcomeDelay > MAX_DELAY) continue;
+                    seed = welcomeSeed;
+                    delay = welcomeDelay;
+                    remoteName = name;
+                    begin();
+                }
+            } else if (type == INPUT && connected && (!host || from.equals(peer)) && in.remaining() >= INPUT_BYTES) {
+                readInputs();
+            }
+        }
+    }
+
+    // Sends the handshake until it completes, then one batch of unacknowledged inputs
+    public void send() throws IOException {
+        if (!connected) {
+            if (!host) {
+                out.clear();
+                out.put(HELLO);
+                putName(localName);
+                write();
+            }
+            return;
+        }
+
+        int first = Math.max(peerAck, localKnown - MAX_BATCH);
+        int count = localKnown - first;
+        long bits = 0;
+        for (int k = 0; k < count; k++) {
+            if (local[(first + k) & (WINDOW - 1)]) bits |= 1L << k;
+        }
+
+        long now = clock();
+        out.clear();
+        out.put(INPUT).putInt(first).put((byte) count).putLong(bits).putInt(remoteKnown);
+        out.putLong(now).putLong(peerPing).putLong(peerPing != 0 ? now - peerPingAt : 0);
+        write();
+    }
+
+    /**
+     * Whether both inputs for the engine's next tick have arrived. Counts a
+     * stall when they haven't, so call it once per attempted tick.
+     */
+    public boolean ready(GameEngine engine) {
+        int tick = engine.getTicks();
+        boolean ok = connected && tick < localKnown && tick < remoteKnown;
+        if (!ok && connected) stalls++;
+        return ok;
+    }
+
+    /**
+     * Runs the engine's next tick with both peers' inputs and queues this peer's
+     * input for the tick {@code delay} ticks later. Only call after {@link #ready}.
+     */
+    public void advance(GameEngine engine, boolean localJump) {
+        int tick = engine.getTicks();
+        int slot = tick & (WINDOW - 1);
+        // Same order on both peers, so particles match too
+        boolean hostJumps = host ? local[slot] : remote[slot];
+        boolean peerJumps = host ? remote[slot] : local[slot];
+        if (hostJumps) engine.jump(0);
+        if (peerJumps) engine.jump(1);
+
+        local[localKnown & (WINDOW - 1)] = localJump;
+        localKnown++;
+
+        engine.tick();
+    }
+
+    private void begin() {
+        connected = true;
+        // Nobody can have input for the first ticks; they count as no jump
+        for (int i = 0; i < WINDOW; i++) {
+            local[i] = false;
+            remote[i] = false;
+        }
+        localKnown = delay;
+        remoteKnown = delay;
+        peerAck = delay;
+    }
+
+    private void readInputs() {
+        int first = in.getInt();
+        int count = in.get() & 0xFF;
+        if (count > MAX_BATCH) return; // Not from a peer running this code
+        long bits = in.getLong();
+        int ack = in.getInt();
+        long ping = in.getLong();
+        long echo = in.getLong();
+        long held = in.getLong();
+
+        // Batches always start at or before what we're missing; anything else is stale or reordered
+        int end = first + count;
+        if (first <= remoteKnown && end > remoteKnown) {
+            for (int t = remoteKnown; t < end; t++) {
+                remote[t & (WINDOW - 1)] = (bits & (1L << (t - first))) != 0;
+            }
+            remoteKnown = end;
+        }
+        peerAck = Math.max(peerAck, ack);
+
+        if (ping > peerPing) {
+            peerPing = ping;
+            peerPingAt = clock();
+        }
+        if (echo != 0) {
+            double sample = (clock() - echo - held) / 1e6;
+            rttMillis = rttMillis < 0 ? sample : rttMillis * 0.9 + sample * 0.1;
+        }
+    }
+
+    private void sendWelcome() throws IOException {
+        out.clear();
+        out.put(WELCOME).putLong(seed).putInt(delay);
+        putName(localName);
+        write();
+    }
+
+    private void write() throws IOException {
+        out.flip();
+        int bytes = out.remaining();
+        try {
+            if (host) {
+                channel.send(out, peer);
+            } else {
+                channel.write(out);
+            }
+        } catch (PortUnreachableException e) {
+            return; // Host not up yet; the next call tries again
+        }
+        packetsSent++;
+        bytesSent += bytes;
+    }
+
+    private long clock() {
+        return System.nanoTime() - epoch + 1;
+    }
+
+    private void putName(String name) {
+        byte[] b = name.getBytes(StandardCharsets.UTF_8);
+        int n = Math.min(b.length, MAX_NAME_BYTES);
+        out.put((byte) n).put(b, 0, n);
+    }
+
+    // Null if the packet ends before the name does
+    private String readName() {
+        if (!in.hasRemaining()) return null;
+        int n = in.get() & 0xFF;
+        if (n > MAX_NAME_BYTES || in.remaining() < n) return null;
+        byte[] b = new byte[n];
+        in.get(b);
+        return new String(b, StandardCharsets.UTF_8);
+    }
+
+    public boolean isConnected() {
+        return connected;
+    }
+
+    public boolean isHost() {
+        return host;
+    }
+
+    // True once connected and nothing has arrived for a while
+    public boolean isPeerLost() {
+        return connected && clock() - lastReceiveAt > PEER_TIMEOUT_NANOS;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public int getDelay() {
+        return delay;
+    }
+
+    // Bird names in bird order: host first
+    public String[] getNames() {
+        return host ? new String[] { localName, remoteName } : new String[] { remoteName, localName };
+    }
+
+    // Bird this peer controls
+    public int getLocalBird() {
+        return host ? 0 : 1;
+    }
+
+    // Smoothed round-trip time, or -1 before the first measurement
+    public double getRttMillis() {
+        return rttMillis;
+    }
+
+    public int getStalls() {
+        return stalls;
+    }
+
+    public long getPacketsSent() {
+        return packetsSent;
+    }
+
+    public long getPacketsReceived() {
+        return packetsReceived;
+    }
+
+    public long getBytesSent() {
+        return bytesSent;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
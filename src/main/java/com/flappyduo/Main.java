@@ -1,14 +1,110 @@
 package com.flappyduo;
 
 import javax.swing.*;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
 
 public class Main {
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
+        if (Arrays.asList(args).contains("--warmup-only")) {
+            Startup.warmUpOnly(); // No window, so it runs headless too
+            return;
+        }
         JFrame frame = new JFrame("Flappy Duo: Tokyo Night");
         frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         frame.setResizable(false);
         
-        GamePanel gamePanel = new GamePanel();
+        int tickRate = GameLoop.DEFAULT_HZ;
+        int activeBuffers = 0; // Swing repaint() path unless --active is given
+        int fps = 0; // Display refresh rate unless --fps is given
+        boolean fastStart = false; // Window first, loading and warm-up behind a progress bar
+        int quality = -1; // Chosen by the governor unless --quality pins a level
+        Path record = null;
+        Path replay = null;
+        int hostPort = -1; // Online play: either host on a port or join an address
+        InetSocketAddress join = null;
+        String name = null;
+        int spectatorPort = -1; // Broadcast to spectators on this port
+        InetSocketAddress spectate = null; // Or watch someone else's broadcast
+        Course course = null; // Every round on one named course
+        int delay = LockstepLink.DEFAULT_DELAY;
+        Path scores = Path.of(System.getProperty("user.home"), ".flappyduo", "leaderboard.dat");
+        for (String arg : args) {
+            if (arg.startsWith("--hz=")) {
+                tickRate = Integer.parseInt(arg.substring("--hz=".length()));
+            } else if (arg.equals("--active")) {
+                activeBuffers = 3;
+            } else if (arg.startsWith("--active=")) {
+                activeBuffers = Integer.parseInt(arg.substring("--active=".length()));
+            } else if (arg.startsWith("--fps=")) {
+                fps = Integer.parseInt(arg.substring("--fps=".length()));
+            } else if (arg.equals("--fast-start")) {
+                fastStart = true;
+            } else if (arg.startsWith("--quality=")) {
+                String value = arg.substring("--quality=".length());
+                quality = value.equals("auto") ? -1 : Integer.parseInt(value);
+            } else if (arg.startsWith("--record=")) {
+                record = Path.of(arg.substring("--record=".length()));
+            } else if (arg.startsWith("--replay=")) {
+                replay = Path.of(arg.substring("--replay=".length()));
+            } else if (arg.equals("--host")) {
+                hostPort = LockstepLink.DEFAULT_PORT;
+            } else if (arg.startsWith("--host=")) {
+                hostPort = Integer.parseInt(arg.substring("--host=".length()));
+            } else if (arg.startsWith("--join=")) {
+                join = address(arg.substring("--join=".length()), LockstepLink.DEFAULT_PORT);
+            } else if (arg.equals("--spectators")) {
+                spectatorPort = SpectatorServer.DEFAULT_PORT;
+            } else if (arg.startsWith("--spectators=")) {
+                spectatorPort = Integer.parseInt(arg.substring("--spectators=".length()));
+            } else if (arg.startsWith("--spectate=")) {
+                spectate = address(arg.substring("--spectate=".length()), SpectatorServer.DEFAULT_PORT);
+            } else if (arg.startsWith("--course=")) {
+                course = Course.named(arg.substring("--course=".length()));
+            } else if (arg.startsWith("--name=")) {
+                name = arg.substring("--name=".length());
+            } else if (arg.startsWith("--leaderboard=")) {
+                String value = arg.substring("--leaderboard=".length());
+                scores = value.equals("off") ? null : Path.of(value);
+            } else if (arg.startsWith("--delay=")) {
+                delay = Integer.parseInt(arg.substring("--delay=".length()));
+            }
+        }
+        
+        GamePanel gamePanel = new GamePanel(tickRate, activeBuffers, fps, fastStart);
+        if (fastStart) Startup.begin(gamePanel);
+        if (quality >= 0) gamePanel.getQuality().setPinnedLevel(quality);
+        if (record != null) gamePanel.recordTo(record);
+        if (course != null) gamePanel.useCourse(course);
+        if (scores != null) {
+            try {
+                if (scores.getParent() != null) Files.createDirectories(scores.getParent());
+                Leaderboard board = Leaderboard.open(scores);
+                gamePanel.useLeaderboard(board);
+                Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                    try {
+                        board.close();
+                    } catch (IOException e) {
+                        // Exiting anyway; the records are already in the page cache
+                    }
+                }, "flappyduo-leaderboard-close"));
+            } catch (IOException e) {
+                System.err.println("Leaderboard disabled: " + e.getMessage());
+            }
+        }
+        if (spectatorPort >= 0) gamePanel.broadcastTo(SpectatorServer.start(spectatorPort));
+        if (replay != null) gamePanel.playReplay(Replay.read(replay));
+        if (spectate != null) {
+            gamePanel.spectate(SpectatorClient.connect(spectate));
+        } else if (hostPort >= 0) {
+            gamePanel.playOnline(LockstepLink.host(hostPort, name != null ? name : "Player 1",
+                    course != null ? course.getSeed() : System.nanoTime(), delay));
+        } else if (join != null) {
+            gamePanel.playOnline(LockstepLink.join(join, name != null ? name : "Player 2"));
+        }
         frame.add(gamePanel);
         frame.pack();
         
@@ -16,4 +112,12 @@ public class Main {
         frame.setVisible(true);
         gamePanel.requestFocusInWindow();
     }
+
+    // host:port, or just host for the default port
+    private static InetSocketAddress address(String address, int defaultPort) {
+        int colon = address.lastIndexOf(':');
+        return colon >= 0
+                ? new InetSocketAddress(address.substring(0, colon), Integer.parseInt(address.substring(colon + 1)))
+                : new InetSocketAddress(address, defaultPort);
+    }
 }
@@ -0,0 +1,65 @@
+package com.flappyduo;
+
+import java.awt.*;
+
+/**
+ * Frame-time overlay toggled with F3: p50/p99/max per stage, the paint
+ * quality level, plus GC activity.
+ * The text is rebuilt twice a second, so the overlay itself barely shows up in
+ * the numbers it reports.
+ */
+class MetricsOverlay {
+
+    private static final long REFRESH_NANOS = 500_000_000L;
+    private static final Font FONT = new Font(Font.MONOSPACED, Font.PLAIN, 12);
+    private static final Color BACKGROUND = new Color(0, 0, 0, 170);
+    private static final int LINE_HEIGHT = 14;
+
+    private final FrameMetrics metrics;
+    private final QualityGovernor quality;
+    private final String[] labels = { "input", "press>tick", "press>frame", "simulation", "publish", "broadcast", "paint", "  background",
+            "  pipes", "  birds", "  particles", "  text", "audio mix" };
+    private final LatencyHistogram[] timers;
+    private final String[] lines;
+    private long refreshedAt = System.nanoTime() - REFRESH_NANOS;
+
+    MetricsOverlay(FrameMetrics metrics, QualityGovernor quality) {
+        this.metrics = metrics;
+        this.quality = quality;
+        this.timers = new LatencyHistogram[] { metrics.input, metrics.inputLatency, metrics.inputToFrame, metrics.simulation, metrics.publish, metrics.broadcast, metrics.paint,
+                metrics.paintBackground, metrics.paintPipes, metrics.paintBirds, metrics.paintParticles,
+                metrics.paintText, metrics.audioMix };
+        this.lines = new String[timers.length + 5];
+    }
+
+    void draw(Graphics2D g2d) {
+        long now = System.nanoTime();
+        if (now - refreshedAt >= REFRESH_NANOS) {
+            refresh();
+            refreshedAt = now;
+        }
+
+        int height = lines.length * LINE_HEIGHT + 8;
+        g2d.setColor(BACKGROUND);
+        g2d.fillRect(GameEngine.WIDTH - 330, 6, 324, height);
+        g2d.setColor(Color.WHITE);
+        g2d.setFont(FONT);
+        for (int i = 0; i < lines.length; i++) {
+            g2d.drawString(lines[i], GameEngine.WIDTH - 324, 20 + i * LINE_HEIGHT);
+        }
+    }
+
+    private void refresh() {
+        lines[0] = String.format("%-12s %9s %9s %9s", "us", "p50", "p99", "max");
+        for (int i = 0; i < timers.length; i++) {
+            LatencyHistogram h = timers[i];
+            lines[i + 1] = String.format("%-12s %9.1f %9.1f %9.1f", labels[i],
+                    h.percentile(0.50) / 1e3, h.percentile(0.99) / 1e3, h.getMax() / 1e3);
+        }
+        lines[lines.length - 4] = quality.summary();
+        lines[lines.length - 3] = metrics.startupSummary();
+        lines[lines.length - 2] = String.format("press mean %.1f ms to tick, %.1f ms to frame",
+                metrics.inputLatency.getMean() / 1e6, metrics.inputToFrame.getMean() / 1e6);
+        lines[lines.length - 1] = String.format("GC %d collections, %d ms", metrics.getGcCount(), metrics.getGcTimeMillis());
+    }
+}
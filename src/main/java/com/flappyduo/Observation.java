@@ -0,0 +1,16 @@
+package com.flappyduo;
+
+/**
+ * What a {@link BirdController} sees of its bird each tick. Instances are
+ * reused: the engine overwrites the fields in place before every decision.
+ */
+public final class Observation {
+
+    public int tick;
+    public int birdY;
+    public int velocity;       // Positive is falling
+    public int pipeDistance;   // From the bird's x to the left edge of the next pipe; negative while inside it
+    public int gapTop;         // Gap of the next pipe, in screen coordinates
+    public int gapBottom;
+    public int pipeSpeed;      // Pixels per tick the pipes move left
+}
@@ -0,0 +1,193 @@
+package com.flappyduo;
+
+import com.flappyduo.ecs.Archetype;
+import com.flappyduo.ecs.Chunk;
+import com.flappyduo.ecs.ChunkSystem;
+import com.flappyduo.ecs.CommandBuffer;
+import com.flappyduo.ecs.Component;
+import com.flappyduo.ecs.Query;
+import com.flappyduo.ecs.World;
+
+/**
+ * Fixed-capacity particle pool on an entity-component {@link World}: each
+ * particle is an entity whose components sit in chunked primitive arrays.
+ * A tick runs motion, shrink and lifetime systems over them; expired
+ * particles are destroyed together afterwards, each hole filled from the end,
+ * so spawning and expiring never allocate or shift arrays.
+ */
+public class ParticleSystem {
+
+    // Palette slots; the renderer maps these to real colors
+    public static final int COLOR_PUFF = 0;
+    public static final int COLOR_BIRD = 1; // + bird index
+
+    public static final int DEFAULT_CAPACITY = 8192;
+
+    // Launch directions are picked from a table instead of calling sin/cos per particle
+    private static final int DIRECTIONS = 256;
+    private static final float[] DIR_X = new float[DIRECTIONS];
+    private static final float[] DIR_Y = new float[DIRECTIONS];
+
+    static {
+        for (int i = 0; i < DIRECTIONS; i++) {
+            double angle = i * Math.PI * 2 / DIRECTIONS;
+            DIR_X[i] = (float) Math.cos(angle);
+            DIR_Y[i] = (float) Math.sin(angle);
+        }
+    }
+
+    static final Component X = Component.ofFloat("particle.x");
+    static final Component Y = Component.ofFloat("particle.y");
+    static final Component VX = Component.ofFloat("particle.vx");
+    static final Component VY = Component.ofFloat("particle.vy");
+    static final Component SIZE = Component.ofFloat("particle.size");
+    static final Component LIFE = Component.ofInt("particle.life");
+    static final Component MAX_LIFE = Component.ofInt("particle.maxLife");
+    static final Component COLOR = Component.ofInt("particle.color");
+
+    private final int capacity;
+    private final World world = new World();
+    private final Archetype particle = world.archetype(X, Y, VX, VY, SIZE, LIFE, MAX_LIFE, COLOR);
+    private final Query moving = world.query(X, Y, VX, VY);
+    private final Query shrinking = world.query(SIZE);
+    private final Query aging = world.query(LIFE);
+    private final CommandBuffer expired = new CommandBuffer();
+
+    private final FastRandom random;
+
+    // Straight-line motion
+    private final ChunkSystem motion = chunk -> {
+        float[] x = chunk.floats(X), y = chunk.floats(Y), vx = chunk.floats(VX), vy = chunk.floats(VY);
+        for (int i = 0, n = chunk.size(); i < n; i++) {
+            x[i] += vx[i];
+            y[i] += vy[i];
+        }
+    };
+
+    private final ChunkSystem shrink = chunk -> {
+        float[] size = chunk.floats(SIZE);
+        for (int i = 0, n = chunk.size(); i < n; i++) {
+            size[i] *= 0.95f;
+        }
+    };
+
+    private final ChunkSystem lifetime = chunk -> {
+        int[] life = chunk.ints(LIFE);
+        for (int i = 0, n = chunk.size(); i < n; i++) {
+            if (--life[i] <= 0) expired.destroy(chunk.entity(i));
+        }
+    };
+
+    public ParticleSystem(int capacity, long seed) {
+        this.capacity = capacity;
+        random = new FastRandom(seed);
+    }
+
+    // Emits up to count particles; anything past capacity is dropped
+    public void spawn(int px, int py, int c, int count, int lifetime, float speed) {
+        int n = Math.min(count, capacity - particle.size());
+        for (int k = 0; k < n; k++) {
+            int entity = world.create(particle);
+            Chunk chunk = world.chunkOf(entity);
+            int i = world.rowOf(entity);
+            int dir = random.nextInt(DIRECTIONS);
+            chunk.floats(X)[i] = px;
+            chunk.floats(Y)[i] = py;
+            chunk.floats(VX)[i] = DIR_X[dir] * speed;
+            chunk.floats(VY)[i] = DIR_Y[dir] * speed;
+            chunk.floats(SIZE)[i] = random.nextFloat() * 5 + 2;
+            chunk.ints(LIFE)[i] = lifetime;
+            chunk.ints(MAX_LIFE)[i] = lifetime;
+            chunk.ints(COLOR)[i] = c;
+        }
+    }
+
+    public void update() {
+        if (particle.size() == 0) return; // Most ticks between jumps and crashes
+        moving.forEach(motion);
+        shrinking.forEach(shrink);
+        aging.forEach(lifetime);
+        world.apply(expired);
+    }
+
+    public void clear() {
+        world.clear();
+    }
+
+    public void setSeed(long seed) {
+        random.setSeed(seed);
+    }
+
+    public int size() {
+        return particle.size();
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    // Snapshot and frame arrays hold the particles in chunk order
+    void save(GameSnapshot s) {
+        s.ensureParticles(particle.size());
+        s.particleRandomState = random.getState();
+        for (int c = 0, at = 0; c < particle.chunkCount(); c++) {
+            Chunk chunk = particle.chunk(c);
+            int n = chunk.size();
+            System.arraycopy(chunk.floats(X), 0, s.particleX, at, n);
+            System.arraycopy(chunk.floats(Y), 0, s.particleY, at, n);
+            System.arraycopy(chunk.floats(VX), 0, s.particleVx, at, n);
+            System.arraycopy(chunk.floats(VY), 0, s.particleVy, at, n);
+            System.arraycopy(chunk.floats(SIZE), 0, s.particleSize, at, n);
+            System.arraycopy(chunk.ints(LIFE), 0, s.particleLife, at, n);
+            System.arraycopy(chunk.ints(MAX_LIFE), 0, s.particleMaxLife, at, n);
+            System.arraycopy(chunk.ints(COLOR), 0, s.particleColor, at, n);
+            at += n;
+        }
+    }
+
+    void restore(GameSnapshot s) {
+        random.setState(s.particleRandomState);
+        // Particles have no identity, so the entities there are reused and only the count is matched
+        int count = Math.min(s.particleCount, capacity);
+        while (particle.size() > count) {
+            Chunk last = particle.chunk(particle.chunkCount() - 1);
+            world.destroy(last.entity(last.size() - 1)); // From the end, so nothing moves
+        }
+        while (particle.size() < count) {
+            world.create(particle);
+        }
+        for (int c = 0, at = 0; c < particle.chunkCount(); c++) {
+            Chunk chunk = particle.chunk(c);
+            int n = chunk.size();
+            System.arraycopy(s.particleX, at, chunk.floats(X), 0, n);
+            System.arraycopy(s.particleY, at, chunk.floats(Y), 0, n);
+            System.arraycopy(s.particleVx, at, chunk.floats(VX), 0, n);
+            System.arraycopy(s.particleVy, at, chunk.floats(VY), 0, n);
+            System.arraycopy(s.particleSize, at, chunk.floats(SIZE), 0, n);
+            System.arraycopy(s.particleLife, at, chunk.ints(LIFE), 0, n);
+            System.arraycopy(s.particleMaxLife, at, chunk.ints(MAX_LIFE), 0, n);
+            System.arraycopy(s.particleColor, at, chunk.ints(COLOR), 0, n);
+            at += n;
+        }
+    }
+
+    // The render system: everything the renderer needs, interpolation included
+    void capture(FrameState frame) {
+        frame.ensureParticles(particle.size());
+        for (int c = 0, at = 0; c < particle.chunkCount(); c++) {
+            Chunk chunk = particle.chunk(c);
+            float[] x = chunk.floats(X), y = chunk.floats(Y), vx = chunk.floats(VX), vy = chunk.floats(VY);
+            float[] size = chunk.floats(SIZE);
+            int[] life = chunk.ints(LIFE), maxLife = chunk.ints(MAX_LIFE), color = chunk.ints(COLOR);
+            for (int i = 0, n = chunk.size(); i < n; i++, at++) {
+                frame.particleX[at] = x[i];
+                frame.particleY[at] = y[i];
+                frame.particlePrevX[at] = x[i] - vx[i]; // Particles move in straight lines
+                frame.particlePrevY[at] = y[i] - vy[i];
+                frame.particleSize[at] = (int) size[i];
+                frame.particleAlpha[at] = (float) life[i] / maxLife[i];
+                frame.particleColor[at] = color[i];
+            }
+        }
+    }
+}
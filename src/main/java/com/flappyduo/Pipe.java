@@ -1,66 +1,59 @@
 package com.flappyduo;
 
-import java.awt.*;
-
 public class Pipe {
     private int x;
+    private int prevX; // Position before the last update, for swept collision
     private int gapY;
-    private int width = 50;
-    private int gapHeight = 150;
+    public static final int WIDTH = 50;
+    public static final int GAP_HEIGHT = 150;
     private boolean passed = false;
-    
-    // Tokyo Night colors
-    private static final Color PIPE_COLOR = new Color(40, 40, 40); // Dark Grey
-    private static final Color PIPE_BORDER = new Color(169, 177, 214); // Light Grey/Blueish
-    
-    public static int speed = 5;
 
     public Pipe(int x, int gapY) {
         this.x = x;
+        this.prevX = x;
         this.gapY = gapY;
     }
 
-    public void update() {
-        x -= speed; // Dynamic speed
+    // Recycles this instance for a newly spawned pipe
+    public void reset(int x, int gapY) {
+        this.x = x;
+        this.prevX = x;
+        this.gapY = gapY;
+        this.passed = false;
     }
 
-    public void draw(Graphics2D g2d) {
-        // Gradient for neon effect
-        GradientPaint gp = new GradientPaint(x, 0, PIPE_COLOR, x + width, 0, PIPE_COLOR.darker());
-        g2d.setPaint(gp);
-        
-        // Top pipe
-        g2d.fillRect(x, 0, width, gapY);
-        // Bottom pipe
-        g2d.fillRect(x, gapY + gapHeight, width, 800 - (gapY + gapHeight));
-        
-        // Neon Borders
-        g2d.setColor(PIPE_BORDER);
-        g2d.setStroke(new BasicStroke(3));
-        g2d.drawRect(x, 0, width, gapY);
-        g2d.drawRect(x, gapY + gapHeight, width, 800);
-        
-        // Inner glow line
-        g2d.setColor(new Color(255, 255, 255, 50));
-        g2d.setStroke(new BasicStroke(1));
-        g2d.drawLine(x + 5, 0, x + 5, gapY);
-        g2d.drawLine(x + 5, gapY + gapHeight, x + 5, 800);
+    // Rest of the state a snapshot brings back after reset()
+    void restore(int prevX, boolean passed) {
+        this.prevX = prevX;
+        this.passed = passed;
     }
 
-    public Rectangle getTopBounds() {
-        return new Rectangle(x, 0, width, gapY);
+    // Speed comes from the owning game, so separate games never share it
+    public void update(int speed) {
+        prevX = x;
+        x -= speed; // Dynamic speed
     }
 
-    public Rectangle getBottomBounds() {
-        return new Rectangle(x, gapY + gapHeight, width, 2000); // Large height to ensure coverage
+    // Discrete test against the top and bottom pipe at the current position
+    public boolean intersects(int bx, int by, int bw, int bh) {
+        return Collisions.intersects(bx, by, bw, bh, x, 0, WIDTH, gapY)
+                || Collisions.intersects(bx, by, bw, bh, x, gapY + GAP_HEIGHT, WIDTH, Collisions.BOTTOM_PIPE_HEIGHT);
     }
 
     public int getX() {
         return x;
     }
 
+    public int getPrevX() {
+        return prevX;
+    }
+
+    public int getGapY() {
+        return gapY;
+    }
+
     public int getWidth() {
-        return width;
+        return WIDTH;
     }
 
     public boolean isPassed() {
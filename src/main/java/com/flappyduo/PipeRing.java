@@ -0,0 +1,65 @@
+package com.flappyduo;
+
+/**
+ * Circular buffer of recycled {@link Pipe}s. Pipes enter on the right and leave
+ * on the left at the same speed, so the buffer stays sorted by x: index 0 is
+ * the leftmost pipe, spawning writes the tail and culling pops the head.
+ */
+public class PipeRing {
+
+    private Pipe[] slots;
+    private int mask;
+    private int head;
+    private int size;
+
+    public PipeRing(int capacity) {
+        int cap = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        slots = new Pipe[cap];
+        for (int i = 0; i < cap; i++) {
+            slots[i] = new Pipe(0, 0);
+        }
+        mask = cap - 1;
+    }
+
+    // Reuses the next free slot; x must not be left of the current last pipe
+    public Pipe add(int x, int gapY) {
+        if (size == slots.length) grow();
+        Pipe pipe = slots[(head + size) & mask];
+        pipe.reset(x, gapY);
+        size++;
+        return pipe;
+    }
+
+    // i-th pipe from the left
+    public Pipe get(int i) {
+        return slots[(head + i) & mask];
+    }
+
+    public void removeFirst() {
+        head = (head + 1) & mask;
+        size--;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        head = 0;
+        size = 0;
+    }
+
+    // Only reached if more pipes are alive than the initial capacity allows
+    private void grow() {
+        Pipe[] bigger = new Pipe[slots.length * 2];
+        for (int i = 0; i < size; i++) {
+            bigger[i] = get(i);
+        }
+        for (int i = size; i < bigger.length; i++) {
+            bigger[i] = new Pipe(0, 0);
+        }
+        slots = bigger;
+        mask = bigger.length - 1;
+        head = 0;
+    }
+}
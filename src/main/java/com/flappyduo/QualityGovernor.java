@@ -0,0 +1,196 @@
+package com.flappyduo;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Keeps paint time under a frame budget by trading away effects. Every frame
+ * reports its paint time; every {@link #WINDOW} frames the governor looks at
+ * the window just gone. If several frames ran past the budget it drops one
+ * level: antialiasing off, then the birds' glow, then most particles, then
+ * gradient pipes. It climbs back one level only after a run of windows
+ * with plenty of headroom. A step up that is undone straight away marks that
+ * level as failed: it is only tried again once frames paint clearly faster
+ * than they did when it failed, so a machine sitting on the edge of a level
+ * settles below it instead of retrying forever.
+ *
+ * <p>Frames are recorded from the thread that paints. The level and the frame
+ * history can be read from any thread, and over JMX as
+ * {@code com.flappyduo:type=QualityGovernor}.
+ */
+public class QualityGovernor implements QualityGovernorMXBean {
+
+    // Levels, each dropping one more effect than the last
+    public static final int FULL = 0;
+    public static final int NO_ANTIALIAS = 1;
+    public static final int NO_GLOW = 2;
+    public static final int FEWER_PARTICLES = 3;
+    public static final int FLAT_PIPES = 4;
+    public static final int LEVELS = 5;
+    private static final String[] NAMES = { "full", "no antialiasing", "no glow", "fewer particles", "flat pipes" };
+
+    public static final long DEFAULT_BUDGET_NANOS = 20_000_000L; // One tick at 50 Hz
+    public static final int WINDOW = 30;
+    public static final int HISTORY = 8 * WINDOW;
+    static final int SLOW_FRAMES = 3;         // Frames over budget in a window that cost a level
+    static final double HEADROOM = 0.6;       // A calm window has at most one frame above this share of the budget
+    static final int CALM_WINDOWS = 4;        // Calm windows in a row before stepping up
+    static final int REVERSAL_WINDOWS = 2;    // A step down this soon after a step up undoes it
+    static final double RETRY_SHARE = 0.8;    // Mean paint time, as a share of when a level failed, to try it again
+
+    private final long budget;
+    private final long headroom;
+    private final AtomicLongArray history = new AtomicLongArray(HISTORY);
+    private volatile long frames;
+    private volatile int level = FULL;
+    private volatile int pinned = -1;
+    private volatile int stepsDown, stepsUp;
+
+    // Render thread only
+    private int slow, busy, calm;
+    private long windowNanos; // Paint time so far in this window
+    private int windowsSinceUp = -1; // -1 unless the last step was up and hasn't held yet
+    private long upFromMean; // Mean paint time of the window the last step up was taken from
+    private int failedLevel = -1; // Level whose step up was undone, or -1
+    private long retryBelow; // Mean paint time a window must get under before failedLevel is tried again
+
+    public QualityGovernor() {
+        this(DEFAULT_BUDGET_NANOS);
+    }
+
+    public QualityGovernor(long budgetNanos) {
+        if (budgetNanos <= 0) throw new IllegalArgumentException("budget must be positive: " + budgetNanos);
+        this.budget = budgetNanos;
+        this.headroom = (long) (budgetNanos * HEADROOM);
+    }
+
+    // Called by the painting thread after every frame with what it took to paint
+    public void record(long nanos) {
+        long n = frames;
+        history.set((int) (n % HISTORY), nanos);
+        frames = n + 1;
+        if (nanos > budget) slow++;
+        if (nanos > headroom) busy++;
+        windowNanos += nanos;
+        if ((n + 1) % WINDOW == 0) {
+            endWindow(windowNanos / WINDOW);
+            slow = 0;
+            busy = 0;
+            windowNanos = 0;
+        }
+    }
+
+    private void endWindow(long mean) {
+        if (windowsSinceUp >= 0 && ++windowsSinceUp > REVERSAL_WINDOWS) {
+            windowsSinceUp = -1;
+            if (level <= failedLevel) failedLevel = -1; // The step up held
+        }
+        if (pinned >= 0) return;
+
+        if (slow >= SLOW_FRAMES) {
+            calm = 0;
+            if (windowsSinceUp >= 0) {
+                // Back where we were; don't come up here again until painting gets clearly cheaper
+                failedLevel = level;
+                retryBelow = (long) (upFromMean * RETRY_SHARE);
+                windowsSinceUp = -1;
+            }
+            if (level < LEVELS - 1) {
+                level++;
+                stepsDown++;
+            }
+        } else if (busy <= 1) {
+            if (++calm >= CALM_WINDOWS && level > FULL && (level - 1 != failedLevel || mean < retryBelow)) {
+                level--;
+                stepsUp++;
+                calm = 0;
+                windowsSinceUp = 0;
+                upFromMean = mean;
+            }
+        } else {
+            calm = 0;
+        }
+    }
+
+    // The level to paint the next frame at
+    @Override
+    public int getLevel() {
+        return level;
+    }
+
+    @Override
+    public String getLevelName() {
+        return NAMES[level];
+    }
+
+    // -1 when the governor chooses the level
+    @Override
+    public int getPinnedLevel() {
+        return pinned;
+    }
+
+    // Holds quality at a level, or hands it back to the governor with -1
+    @Override
+    public void setPinnedLevel(int pin) {
+        if (pin < -1 || pin >= LEVELS) throw new IllegalArgumentException("No quality level " + pin);
+        pinned = pin;
+        if (pin >= 0) level = pin;
+    }
+
+    @Override
+    public double getBudgetMillis() {
+        return budget / 1e6;
+    }
+
+    @Override
+    public int getStepsDown() {
+        return stepsDown;
+    }
+
+    @Override
+    public int getStepsUp() {
+        return stepsUp;
+    }
+
+    @Override
+    public double[] getRecentFrameTimesMillis() {
+        long[] nanos = new long[HISTORY];
+        int n = history(nanos);
+        double[] millis = new double[n];
+        for (int i = 0; i < n; i++) {
+            millis[i] = nanos[i] / 1e6;
+        }
+        return millis;
+    }
+
+    // Copies up to the last HISTORY paint times, oldest first, into out; returns how many
+    public int history(long[] out) {
+        long end = frames;
+        int n = (int) Math.min(Math.min(end, HISTORY), out.length);
+        for (int i = 0; i < n; i++) {
+            out[i] = history.get((int) ((end - n + i) % HISTORY)); // May catch a frame being written
+        }
+        return n;
+    }
+
+    public long getFrames() {
+        return frames;
+    }
+
+    String summary() {
+        return String.format("quality %d %s%s, budget %.0f ms, %d down / %d up", level, NAMES[level],
+                pinned >= 0 ? " (pinned)" : "", budget / 1e6, stepsDown, stepsUp);
+    }
+
+    // Publishes the governor over JMX; returns false if the name is already taken
+    public boolean register() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, new ObjectName("com.flappyduo:type=QualityGovernor"));
+            return true;
+        } catch (JMException e) {
+            return false;
+        }
+    }
+}
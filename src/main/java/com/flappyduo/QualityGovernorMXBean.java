@@ -0,0 +1,27 @@
+package com.flappyduo;
+
+/**
+ * JMX view of {@link QualityGovernor}, registered as {@code com.flappyduo:type=QualityGovernor}.
+ * Pinning a level from JConsole holds quality there until it is set back to -1.
+ */
+public interface QualityGovernorMXBean {
+
+    /** 0 for full quality, up to 4 with every optional effect dropped. */
+    int getLevel();
+
+    String getLevelName();
+
+    /** The level quality is held at, or -1 when the governor chooses. */
+    int getPinnedLevel();
+
+    void setPinnedLevel(int level);
+
+    double getBudgetMillis();
+
+    int getStepsDown();
+
+    int getStepsUp();
+
+    /** Paint times of the most recent frames, oldest first. */
+    double[] getRecentFrameTimesMillis();
+}
@@ -0,0 +1,74 @@
+package com.flappyduo;
+
+import java.awt.*;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Paces rendering on its own thread at the display's refresh rate, independent
+ * of the sim's tick rate. Each pass only asks for a frame; the renderer works
+ * out where things are from the time since the latest tick.
+ */
+public class RenderLoop implements Runnable {
+
+    // Used when the refresh rate can't be read (headless, some drivers report 0)
+    public static final int FALLBACK_FPS = 60;
+
+    private final int fps;
+    private final long frameNanos;
+    private final Runnable frame;
+
+    private volatile boolean running = false;
+    private Thread thread;
+
+    // fps 0 follows the default screen's refresh rate
+    public RenderLoop(int fps, Runnable frame) {
+        if (fps < 0) throw new IllegalArgumentException("fps must not be negative: " + fps);
+        this.fps = fps > 0 ? fps : displayRefreshRate();
+        this.frameNanos = 1_000_000_000L / this.fps;
+        this.frame = frame;
+    }
+
+    public static int displayRefreshRate() {
+        if (GraphicsEnvironment.isHeadless()) return FALLBACK_FPS;
+        int hz = GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice()
+                .getDisplayMode().getRefreshRate();
+        return hz != DisplayMode.REFRESH_RATE_UNKNOWN && hz > 0 ? hz : FALLBACK_FPS;
+    }
+
+    public void start() {
+        if (running) return;
+        running = true;
+        thread = new Thread(this, "flappyduo-render");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public void stop() {
+        running = false;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    public int getFps() {
+        return fps;
+    }
+
+    @Override
+    public void run() {
+        long next = System.nanoTime();
+        while (running) {
+            frame.run();
+
+            next += frameNanos;
+            long now = System.nanoTime();
+            if (next < now - frameNanos) {
+                next = now; // Fell behind (slow frame, vsync wait); don't try to catch up
+            }
+            long wait = next - now;
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+        }
+    }
+}
@@ -0,0 +1,275 @@
+package com.flappyduo;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+/**
+ * Fonts, strokes, composites and pre-rendered pieces the paint path reuses for
+ * the whole run. Anything that used to be built per frame (gradients, fonts,
+ * composites, anti-aliased shapes) is created here once.
+ */
+class RenderResources {
+
+    static final Font TITLE_FONT = new Font("Consolas", Font.BOLD, 40);
+    static final Font MENU_FONT = new Font("Consolas", Font.PLAIN, 20);
+    static final Font HUD_FONT = new Font("Consolas", Font.BOLD, 20);
+    static final Font NAME_FONT = new Font("Consolas", Font.BOLD, 12);
+    static final Font GAME_OVER_FONT = new Font("Consolas", Font.BOLD, 50);
+    private static final FontMetrics NAME_METRICS = metrics(NAME_FONT);
+    static final int NAME_ASCENT = NAME_METRICS.getAscent();
+
+    static final Color OVERLAY_COLOR = new Color(0, 0, 0, 150);
+    static final AlphaComposite GLOW_COMPOSITE = AlphaComposite.getInstance(AlphaComposite.SRC_OVER, 0.3f);
+
+    private static final Color PIPE_COLOR = new Color(40, 40, 40); // Dark Grey
+    private static final Color PIPE_BORDER = new Color(169, 177, 214); // Light Grey/Blueish
+    private static final Color PIPE_GLOW = new Color(255, 255, 255, 50);
+    private static final BasicStroke BORDER_STROKE = new BasicStroke(3);
+    private static final BasicStroke GLOW_STROKE = new BasicStroke(1);
+
+    private static final int BIRD_SIZE = Flock.SIZE;
+    static final int GLOW_MARGIN = 8;
+    static final int BIRD_SPRITE_SIZE = BIRD_SIZE + 2 * GLOW_MARGIN;
+    private static final int WING_STATES = 3;
+    private static final int PLAIN_MARGIN = 2; // Enough for the wing, which pokes out past the body
+
+    // Pipes are drawn once at a reference gap and sliced into border caps and a repeating body
+    private static final int PIPE_MARGIN = 2; // Room for the 3px border either side
+    private static final int PIPE_IMAGE_WIDTH = Pipe.WIDTH + 2 * PIPE_MARGIN + 2;
+    private static final int REF_GAP_Y = 300;
+    private static final int CAP = 3; // Rows above and below a border that the stroke can touch
+    private final BufferedImage pipeReference;
+    private final BufferedImage pipeBody; // Body row repeated down the full screen, so bodies are plain copies
+
+    static final int MAX_PARTICLE_SIZE = 8;
+    private final BufferedImage[][] particleDots;
+
+    // Every finished bird look in one image: a column per wing state, a row per color alive, then per color dead
+    private final BufferedImage birdAtlas;
+    private final BufferedImage plainBirdAtlas; // Same layout with no glow around the living birds
+    private final int birdColors;
+
+    RenderResources(Color[] birdColors, Color[] wingColors, Color[] particleColors) {
+        pipeReference = renderPipeReference();
+        pipeBody = new BufferedImage(PIPE_IMAGE_WIDTH, GameEngine.HEIGHT, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D body = pipeBody.createGraphics();
+        body.setComposite(AlphaComposite.Src);
+        for (int y = 0; y < GameEngine.HEIGHT; y++) {
+            body.drawImage(pipeReference, 0, y, PIPE_IMAGE_WIDTH, y + 1,
+                    0, REF_GAP_Y / 2, PIPE_IMAGE_WIDTH, REF_GAP_Y / 2 + 1, null);
+        }
+        body.dispose();
+
+        particleDots = new BufferedImage[particleColors.length][MAX_PARTICLE_SIZE + 1];
+        for (int c = 0; c < particleColors.length; c++) {
+            for (int s = 1; s <= MAX_PARTICLE_SIZE; s++) {
+                BufferedImage dot = new BufferedImage(s, s, BufferedImage.TYPE_INT_ARGB);
+                Graphics2D g2d = antialiased(dot);
+                g2d.setColor(particleColors[c]);
+                g2d.fillOval(0, 0, s, s);
+                g2d.dispose();
+                particleDots[c][s] = dot;
+            }
+        }
+
+        this.birdColors = birdColors.length;
+        birdAtlas = renderBirdAtlas(birdColors, wingColors, true);
+        plainBirdAtlas = renderBirdAtlas(birdColors, wingColors, false);
+    }
+
+    // Pipe with culling; five image copies instead of gradient fills and stroked rects
+    void drawPipe(Graphics2D g2d, int x, int gapY) {
+        int left = x - PIPE_MARGIN;
+        int right = left + PIPE_IMAGE_WIDTH;
+        if (right < 0 || left > GameEngine.WIDTH) return; // Off screen
+
+        int bottomY = gapY + Pipe.GAP_HEIGHT;
+        int screenBottom = GameEngine.HEIGHT;
+
+        // Top pipe: top border, body, bottom border
+        blitRows(g2d, left, 0, CAP, 0);
+        drawBody(g2d, left, CAP, gapY - CAP);
+        blitRows(g2d, left, gapY - CAP, 2 * CAP, REF_GAP_Y - CAP);
+
+        // Bottom pipe: top border, body
+        blitRows(g2d, left, bottomY - CAP, 2 * CAP, REF_GAP_Y + Pipe.GAP_HEIGHT - CAP);
+        drawBody(g2d, left, bottomY + CAP, screenBottom);
+    }
+
+    // Quality fallback: solid fills for the bodies and borders, no images, gradients or glow line
+    void drawFlatPipe(Graphics2D g2d, int x, int gapY) {
+        if (x + Pipe.WIDTH + PIPE_MARGIN < 0 || x - PIPE_MARGIN > GameEngine.WIDTH) return; // Off screen
+
+        int bottomY = gapY + Pipe.GAP_HEIGHT;
+        g2d.setColor(PIPE_COLOR);
+        g2d.fillRect(x, 0, Pipe.WIDTH, gapY);
+        g2d.fillRect(x, bottomY, Pipe.WIDTH, GameEngine.HEIGHT - bottomY);
+
+        // Where the 3px border strokes land
+        g2d.setColor(PIPE_BORDER);
+        g2d.fillRect(x - 1, 0, 3, gapY + 2);
+        g2d.fillRect(x + Pipe.WIDTH - 1, 0, 3, gapY + 2);
+        g2d.fillRect(x - 1, gapY - 1, Pipe.WIDTH + 3, 3);
+        g2d.fillRect(x - 1, bottomY - 1, 3, GameEngine.HEIGHT - bottomY + 1);
+        g2d.fillRect(x + Pipe.WIDTH - 1, bottomY - 1, 3, GameEngine.HEIGHT - bottomY + 1);
+        g2d.fillRect(x - 1, bottomY - 1, Pipe.WIDTH + 3, 3);
+    }
+
+    private void blitRows(Graphics2D g2d, int x, int y, int rows, int srcY) {
+        g2d.drawImage(pipeReference, x, y, x + PIPE_IMAGE_WIDTH, y + rows,
+                0, srcY, PIPE_IMAGE_WIDTH, srcY + rows, null);
+    }
+
+    // Unscaled copy; scaled drawImage calls go through the transform path and allocate
+    private void drawBody(Graphics2D g2d, int x, int y1, int y2) {
+        if (y2 <= y1) return;
+        g2d.drawImage(pipeBody, x, y1, x + PIPE_IMAGE_WIDTH, y2,
+                0, 0, PIPE_IMAGE_WIDTH, y2 - y1, null);
+    }
+
+    // Pre-rendered anti-aliased dot, or null if the size isn't cached
+    BufferedImage particleDot(int color, int size) {
+        if (size < 1 || size > MAX_PARTICLE_SIZE || color >= particleDots.length) return null;
+        return particleDots[color][size];
+    }
+
+    // Whole bird in one copy; (x, y) is the bird's position, the sprite's glow reaches GLOW_MARGIN past it
+    void drawBird(Graphics2D g2d, int x, int y, int color, int wingState, boolean dead) {
+        drawBird(g2d, x, y, color, wingState, dead, true);
+    }
+
+    // Without the glow only the bird itself is copied, under half the sprite's pixels
+    void drawBird(Graphics2D g2d, int x, int y, int color, int wingState, boolean dead, boolean glow) {
+        int sx = wingState * BIRD_SPRITE_SIZE;
+        int sy = ((dead ? birdColors : 0) + color % birdColors) * BIRD_SPRITE_SIZE;
+        if (glow) {
+            int dx = x - GLOW_MARGIN;
+            int dy = y - GLOW_MARGIN;
+            g2d.drawImage(birdAtlas, dx, dy, dx + BIRD_SPRITE_SIZE, dy + BIRD_SPRITE_SIZE,
+                    sx, sy, sx + BIRD_SPRITE_SIZE, sy + BIRD_SPRITE_SIZE, null);
+        } else {
+            int inset = GLOW_MARGIN - PLAIN_MARGIN;
+            int size = BIRD_SIZE + 2 * PLAIN_MARGIN;
+            int dx = x - PLAIN_MARGIN;
+            int dy = y - PLAIN_MARGIN;
+            g2d.drawImage(plainBirdAtlas, dx, dy, dx + size, dy + size,
+                    sx + inset, sy + inset, sx + inset + size, sy + inset + size, null);
+        }
+    }
+
+    // A bird's name as drawn above it, cropped to the text; its top sits NAME_ASCENT above the baseline
+    static BufferedImage renderNameLabel(String name) {
+        BufferedImage img = new BufferedImage(Math.max(1, NAME_METRICS.stringWidth(name)),
+                NAME_ASCENT + NAME_METRICS.getDescent(), BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g2d = img.createGraphics();
+        g2d.setColor(Color.WHITE);
+        g2d.setFont(NAME_FONT);
+        g2d.drawString(name, 0, NAME_ASCENT);
+        g2d.dispose();
+        return img;
+    }
+
+    private static FontMetrics metrics(Font font) {
+        Graphics2D g2d = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB).createGraphics();
+        FontMetrics fm = g2d.getFontMetrics(font);
+        g2d.dispose();
+        return fm;
+    }
+
+    private static BufferedImage renderBirdAtlas(Color[] colors, Color[] wingColors, boolean glow) {
+        BufferedImage atlas = new BufferedImage(WING_STATES * BIRD_SPRITE_SIZE, 2 * colors.length * BIRD_SPRITE_SIZE,
+                BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g2d = antialiased(atlas);
+        for (int dead = 0; dead < 2; dead++) {
+            for (int c = 0; c < colors.length; c++) {
+                BufferedImage body = renderBirdBody(dead == 1 ? null : colors[c], glow);
+                Color wing = dead == 1 ? Color.DARK_GRAY : wingColors[c % wingColors.length];
+                for (int w = 0; w < WING_STATES; w++) {
+                    int x = w * BIRD_SPRITE_SIZE;
+                    int y = (dead * colors.length + c) * BIRD_SPRITE_SIZE;
+                    g2d.drawImage(body, x, y, null);
+                    drawBirdFeatures(g2d, x + GLOW_MARGIN, y + GLOW_MARGIN, wing, w);
+                }
+            }
+        }
+        g2d.dispose();
+        return atlas;
+    }
+
+    // Eye and wing over the body, for a bird at (x, y)
+    private static void drawBirdFeatures(Graphics2D g2d, int x, int y, Color wing, int wingState) {
+        // Eye
+        g2d.setColor(Color.WHITE);
+        g2d.fillOval(x + 12, y + 2, 8, 8);
+        g2d.setColor(Color.BLACK);
+        g2d.fillOval(x + 16, y + 4, 3, 3);
+
+        // Wing
+        g2d.setColor(wing);
+        int wingY = y + 8;
+        if (wingState == 0) wingY -= 4;
+        else if (wingState == 2) wingY += 4;
+        g2d.fillOval(x - 2, wingY, 12, 8);
+    }
+
+    private static BufferedImage renderBirdBody(Color color, boolean glow) {
+        BufferedImage img = new BufferedImage(BIRD_SPRITE_SIZE, BIRD_SPRITE_SIZE, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g2d = antialiased(img);
+        int x = GLOW_MARGIN;
+        int y = GLOW_MARGIN;
+        if (color == null) {
+            g2d.setColor(Color.GRAY);
+            g2d.fillOval(x, y, BIRD_SIZE, BIRD_SIZE);
+        } else {
+            // Gradient body
+            g2d.setPaint(new GradientPaint(x, y, color, x + BIRD_SIZE, y + BIRD_SIZE, color.darker()));
+            g2d.fillOval(x, y, BIRD_SIZE, BIRD_SIZE);
+
+            // Glow
+            if (glow) {
+                g2d.setComposite(GLOW_COMPOSITE);
+                g2d.setColor(color);
+                g2d.fillOval(x - GLOW_MARGIN, y - GLOW_MARGIN, BIRD_SIZE + 2 * GLOW_MARGIN, BIRD_SIZE + 2 * GLOW_MARGIN);
+            }
+        }
+        g2d.dispose();
+        return img;
+    }
+
+    // One pipe drawn the original way, at a known gap, for slicing
+    private static BufferedImage renderPipeReference() {
+        int width = Pipe.WIDTH;
+        int gapHeight = Pipe.GAP_HEIGHT;
+        int x = PIPE_MARGIN;
+        int gapY = REF_GAP_Y;
+
+        BufferedImage img = new BufferedImage(PIPE_IMAGE_WIDTH, 800, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g2d = antialiased(img);
+
+        // Gradient for neon effect
+        g2d.setPaint(new GradientPaint(x, 0, PIPE_COLOR, x + width, 0, PIPE_COLOR.darker()));
+        g2d.fillRect(x, 0, width, gapY);
+        g2d.fillRect(x, gapY + gapHeight, width, 800 - (gapY + gapHeight));
+
+        // Neon Borders
+        g2d.setColor(PIPE_BORDER);
+        g2d.setStroke(BORDER_STROKE);
+        g2d.drawRect(x, 0, width, gapY);
+        g2d.drawRect(x, gapY + gapHeight, width, 800);
+
+        // Inner glow line
+        g2d.setColor(PIPE_GLOW);
+        g2d.setStroke(GLOW_STROKE);
+        g2d.drawLine(x + 5, 0, x + 5, gapY);
+        g2d.drawLine(x + 5, gapY + gapHeight, x + 5, 800);
+
+        g2d.dispose();
+        return img;
+    }
+
+    private static Graphics2D antialiased(BufferedImage img) {
+        Graphics2D g2d = img.createGraphics();
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        return g2d;
+    }
+}
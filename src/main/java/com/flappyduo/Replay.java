@@ -0,0 +1,177 @@
+package com.flappyduo;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A recorded round: its seed, bird names and one run-length encoded input
+ * stream per bird. Each stream holds alternating run lengths of "no jump" and
+ * "jump" ticks, starting with "no jump", as unsigned varints. The tick count
+ * and final {@link GameEngine#stateHash()} let playback check it stayed in sync,
+ * and the {@link Course#hash(int) course hash} ties it to the course it was played on.
+ * Each bird's final score is stored as well: it is what a submission claims,
+ * and {@link ReplayVerifier} re-plays the inputs to check it.
+ */
+public class Replay {
+
+    private static final int MAGIC = 0x46445250; // "FDRP"
+    private static final int VERSION = 4; // 2: courses come from FastRandom, 3: course hash, 4: scores
+
+    final long seed;
+    final String[] names;
+    final int ticks;
+    final long finalHash;
+    final long courseHash;
+    final int[] scores;
+    final byte[][] runs;
+
+    Replay(long seed, String[] names, int ticks, long finalHash, long courseHash, int[] scores, byte[][] runs) {
+        this.seed = seed;
+        this.names = names;
+        this.ticks = ticks;
+        this.finalHash = finalHash;
+        this.courseHash = courseHash;
+        this.scores = scores;
+        this.runs = runs;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public String[] getNames() {
+        return names.clone();
+    }
+
+    public int getTicks() {
+        return ticks;
+    }
+
+    public long getFinalHash() {
+        return finalHash;
+    }
+
+    public long getCourseHash() {
+        return courseHash;
+    }
+
+    // Final score of a bird as recorded
+    public int getScore(int bird) {
+        return scores[bird];
+    }
+
+    public void write(Path path) throws IOException {
+        ByteBuffer buf = ByteBuffer.wrap(encode());
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (buf.hasRemaining()) {
+                ch.write(buf);
+            }
+        }
+    }
+
+    public static Replay read(Path path) throws IOException {
+        ByteBuffer buf;
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+            buf = ByteBuffer.allocate((int) ch.size());
+            while (buf.hasRemaining() && ch.read(buf) >= 0) {
+                // Keep reading until the whole file is in
+            }
+        }
+        buf.flip();
+        try {
+            return decode(buf);
+        } catch (IOException e) {
+            throw new IOException(path + ": " + e.getMessage());
+        }
+    }
+
+    // The file contents, as uploaded with a submission
+    public byte[] encode() {
+        byte[][] nameBytes = new byte[names.length][];
+        int size = 4 + 4 + 8 + 4 + 8 + 8 + 4;
+        for (int i = 0; i < names.length; i++) {
+            nameBytes[i] = names[i].getBytes(StandardCharsets.UTF_8);
+            size += 4 + nameBytes[i].length + 4 + 4 + runs[i].length;
+        }
+
+        ByteBuffer buf = ByteBuffer.allocate(size);
+        buf.putInt(MAGIC).putInt(VERSION).putLong(seed).putInt(ticks).putLong(finalHash).putLong(courseHash).putInt(names.length);
+        for (int i = 0; i < names.length; i++) {
+            buf.putInt(nameBytes[i].length).put(nameBytes[i]);
+            buf.putInt(scores[i]);
+            buf.putInt(runs[i].length).put(runs[i]);
+        }
+        return buf.array();
+    }
+
+    // Reads a replay from the buffer's remaining bytes; they come from players, so lengths are checked before use
+    public static Replay decode(ByteBuffer buf) throws IOException {
+        try {
+            if (buf.remaining() < 8 || buf.getInt() != MAGIC) throw new IOException("Not a replay file");
+            int version = buf.getInt();
+            if (version != VERSION) throw new IOException("Unsupported replay version " + version);
+            long seed = buf.getLong();
+            int ticks = buf.getInt();
+            long finalHash = buf.getLong();
+            long courseHash = buf.getLong();
+            int birds = buf.getInt();
+            if (birds < 1 || birds > buf.remaining() / 12) throw new IOException("Bad bird count " + birds);
+            String[] names = new String[birds];
+            int[] scores = new int[birds];
+            byte[][] runs = new byte[birds][];
+            for (int i = 0; i < birds; i++) {
+                byte[] name = new byte[length(buf)];
+                buf.get(name);
+                names[i] = new String(name, StandardCharsets.UTF_8);
+                scores[i] = buf.getInt();
+                runs[i] = new byte[length(buf)];
+                buf.get(runs[i]);
+                if (!coversTicks(runs[i], ticks)) throw new IOException("Bad input stream for " + names[i]);
+            }
+            return new Replay(seed, names, ticks, finalHash, courseHash, scores, runs);
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Replay is truncated");
+        }
+    }
+
+    // Whether the stream is whole varints adding up to at least ticks, so playback never reads past its end
+    private static boolean coversTicks(byte[] runs, int ticks) {
+        long total = 0;
+        int pos = 0;
+        while (pos < runs.length) {
+            int value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                if (pos == runs.length || shift > 28) return false; // Cut off, or longer than an int
+                b = runs[pos++];
+                value |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            if (value < 0) return false;
+            total += value;
+        }
+        return total >= ticks;
+    }
+
+    private static int length(ByteBuffer buf) throws IOException {
+        int n = buf.getInt();
+        if (n < 0 || n > buf.remaining()) throw new IOException("Bad length " + n);
+        return n;
+    }
+
+    // Encoded size in bytes, excluding the header
+    public int inputBytes() {
+        int n = 0;
+        for (byte[] r : runs) {
+            n += r.length;
+        }
+        return n;
+    }
+}
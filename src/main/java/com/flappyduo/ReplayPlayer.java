@@ -0,0 +1,114 @@
+package com.flappyduo;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Feeds a {@link Replay} back through a {@link GameEngine}. Decodes the run
+ * streams lazily, one tick at a time, so it can drive the live window or run
+ * headless as fast as the engine ticks.
+ *
+ * <pre>java com.flappyduo.ReplayPlayer round.fdr</pre>
+ */
+public class ReplayPlayer {
+
+    private Replay replay;
+    private int[] pos = new int[0];           // Read offset into each bird's stream
+    private boolean[] jumping = new boolean[0]; // Value of each bird's current run
+    private int[] remaining = new int[0];     // Ticks left in each bird's current run
+    private int birds;
+    private int tick;
+
+    public ReplayPlayer(Replay replay) {
+        load(replay);
+    }
+
+    // Switches to another recording, reusing the decoding state; call start next
+    public void load(Replay next) {
+        replay = next;
+        birds = next.names.length;
+        if (pos.length < birds) {
+            pos = new int[birds];
+            jumping = new boolean[birds];
+            remaining = new int[birds];
+        }
+    }
+
+    // Starts the recorded round on the engine and rewinds the input streams
+    public void start(GameEngine engine) {
+        engine.start(replay.seed, replay.names);
+        tick = 0;
+        for (int i = 0; i < birds; i++) {
+            pos[i] = 0;
+            jumping[i] = true; // Flipped to "no jump" by the first run
+            remaining[i] = 0;
+        }
+    }
+
+    // Applies one tick of recorded input and ticks the engine; false once the recording has run out
+    public boolean step(GameEngine engine) {
+        if (isFinished()) return false;
+        for (int i = 0; i < birds; i++) {
+            while (remaining[i] == 0) {
+                remaining[i] = readVarint(i);
+                jumping[i] = !jumping[i];
+            }
+            remaining[i]--;
+            if (jumping[i]) engine.jump(i);
+        }
+        engine.tick();
+        tick++;
+        return true;
+    }
+
+    public boolean isFinished() {
+        return tick >= replay.ticks;
+    }
+
+    // Whether the engine ended up exactly where the recording did, on the same course
+    public boolean matches(GameEngine engine) {
+        return engine.getTicks() == replay.ticks && engine.stateHash() == replay.finalHash
+                && engine.getCourse().hash(replay.ticks) == replay.courseHash;
+    }
+
+    // No bounds checks: Replay.decode only lets through streams that cover every tick
+    private int readVarint(int bird) {
+        byte[] buf = replay.runs[bird];
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buf[pos[bird]++];
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return value;
+    }
+
+    // Plays a replay file headless and reports whether it reproduced the recorded round
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("usage: ReplayPlayer <replay file>");
+            return;
+        }
+        Replay replay = Replay.read(Path.of(args[0]));
+        GameEngine engine = GameEngine.headless(replay.seed);
+        ReplayPlayer player = new ReplayPlayer(replay);
+
+        long start = System.nanoTime();
+        player.start(engine);
+        while (player.step(engine)) {
+            // Runs to the end of the recording
+        }
+        long nanos = System.nanoTime() - start;
+
+        System.out.printf("seed=%d birds=%d ticks=%d input=%d bytes, played in %.1f ms%n",
+                replay.seed, replay.names.length, replay.ticks, replay.inputBytes(), nanos / 1e6);
+        for (int i = 0; i < replay.names.length; i++) {
+            System.out.printf("  %s: %d%n", replay.names[i], engine.getScore(i));
+        }
+        boolean ok = player.matches(engine);
+        System.out.println(ok ? "OK: reproduced exactly" : "MISMATCH: playback diverged from the recording");
+        if (!ok) System.exit(1);
+    }
+}
@@ -0,0 +1,89 @@
+package com.flappyduo;
+
+import java.util.Arrays;
+
+/**
+ * Records the inputs of a round as it is played. Attach it with
+ * {@link GameEngine#setRecorder}; the engine reports every round start, jump
+ * and tick. Per tick it only compares one bit per bird with the current run,
+ * so the steady-state cost is a few array reads and no allocation.
+ */
+public class ReplayRecorder {
+
+    private long seed;
+    private String[] names = new String[0];
+    private int ticks;
+
+    private boolean[] pending = new boolean[0]; // Jumps since the last tick
+    private boolean[] current = new boolean[0]; // Value of the open run
+    private int[] runLength = new int[0];
+    private byte[][] out = new byte[0][];
+    private int[] outLength = new int[0];
+
+    void start(long seed, String[] names) {
+        int n = names.length;
+        this.seed = seed;
+        this.names = names.clone();
+        this.ticks = 0;
+        if (pending.length < n) {
+            pending = new boolean[n];
+            current = new boolean[n];
+            runLength = new int[n];
+            out = Arrays.copyOf(out, n);
+            outLength = new int[n];
+        }
+        for (int i = 0; i < n; i++) {
+            pending[i] = false;
+            current[i] = false; // Streams start with a "no jump" run
+            runLength[i] = 0;
+            outLength[i] = 0;
+            if (out[i] == null) out[i] = new byte[64];
+        }
+    }
+
+    void jump(int bird) {
+        pending[bird] = true;
+    }
+
+    void tick() {
+        ticks++;
+        for (int i = 0; i < names.length; i++) {
+            boolean jumped = pending[i];
+            pending[i] = false;
+            if (jumped != current[i]) {
+                writeVarint(i, runLength[i]);
+                current[i] = jumped;
+                runLength[i] = 0;
+            }
+            runLength[i]++;
+        }
+    }
+
+    // Replay of the round so far; recording can carry on afterwards
+    public Replay finish(GameEngine engine) {
+        byte[][] runs = new byte[names.length][];
+        int[] scores = new int[names.length];
+        for (int i = 0; i < names.length; i++) {
+            scores[i] = engine.getScore(i);
+            int saved = outLength[i];
+            writeVarint(i, runLength[i]); // Close the open run
+            runs[i] = Arrays.copyOf(out[i], outLength[i]);
+            outLength[i] = saved;
+        }
+        return new Replay(seed, names.clone(), ticks, engine.stateHash(), engine.getCourse().hash(ticks), scores, runs);
+    }
+
+    private void writeVarint(int bird, int value) {
+        byte[] buf = out[bird];
+        if (outLength[bird] + 5 > buf.length) {
+            buf = out[bird] = Arrays.copyOf(buf, buf.length * 2);
+        }
+        int pos = outLength[bird];
+        while ((value & ~0x7F) != 0) {
+            buf[pos++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buf[pos++] = (byte) value;
+        outLength[bird] = pos;
+    }
+}
@@ -0,0 +1,247 @@
+package com.flappyduo;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Checks submitted results by playing their replays again. A replay is
+ * accepted only if its inputs, played headless on its seed, end the round on
+ * exactly the tick it claims, with the scores it claims, on the course it
+ * claims and in the same final state. Anything else is rejected with the
+ * reason. Input that doesn't decode never gets this far: {@link Replay#decode}
+ * turns it away, so an exception while re-playing is the verifier's fault and
+ * comes back as an error with no verdict.
+ *
+ * <p>Replays are spread over one worker thread per core. Each worker keeps one
+ * {@link GameEngine#headless headless} engine, whose one course every replay
+ * reseeds, and one player for its whole life, and the queue in front of them
+ * is bounded, so memory stays flat however many replays go through. Results go
+ * to the listener as each one finishes, on the worker that checked it.
+ *
+ * <pre>java com.flappyduo.ReplayVerifier --threads=8 submissions/ extra.fdr</pre>
+ */
+public class ReplayVerifier implements AutoCloseable {
+
+    public static final int MAX_TICKS = 50 * 60 * 60; // An hour at 50 Hz; longer claims aren't worth simulating
+    public static final int MAX_BIRDS = 64;
+    private static final int QUEUE_PER_WORKER = 64;
+
+    private static final Submission STOP = new Submission(null, null);
+
+    private final BlockingQueue<Submission> queue;
+    private final Thread[] workers;
+    private final Consumer<Result> listener;
+
+    public ReplayVerifier(int threads, Consumer<Result> listener) {
+        this.listener = listener;
+        this.queue = new ArrayBlockingQueue<>(threads * QUEUE_PER_WORKER);
+        this.workers = new Thread[threads];
+        for (int i = 0; i < threads; i++) {
+            workers[i] = new Thread(this::work, "flappyduo-verify-" + i);
+            workers[i].setDaemon(true);
+            workers[i].start();
+        }
+    }
+
+    // Queues a replay; blocks while the workers are that far behind
+    public void submit(String id, Replay replay) throws InterruptedException {
+        queue.put(new Submission(id, replay));
+    }
+
+    // Waits until everything submitted has been checked, then stops the workers; stops waiting if interrupted
+    @Override
+    public void close() {
+        try {
+            for (int i = 0; i < workers.length; i++) {
+                queue.put(STOP);
+            }
+            for (Thread worker : workers) {
+                worker.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void work() {
+        GameEngine engine = GameEngine.headless(0);
+        ReplayPlayer player = null;
+        while (true) {
+            Submission s;
+            try {
+                s = queue.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (s == STOP) return;
+
+            long start = System.nanoTime();
+            String rejection = null;
+            RuntimeException error = null;
+            try {
+                if (player == null) {
+                    player = new ReplayPlayer(s.replay);
+                }
+                rejection = verify(s.replay, engine, player);
+            } catch (RuntimeException e) {
+                error = e; // A bug in the engine or here, not something the submission did
+            }
+            listener.accept(new Result(s.id, s.replay, rejection, error, System.nanoTime() - start));
+        }
+    }
+
+    // Null if the replay reproduces everything it claims, otherwise why not
+    static String verify(Replay replay, GameEngine engine, ReplayPlayer player) {
+        if (replay.ticks < 1 || replay.ticks > MAX_TICKS) return "Claims " + replay.ticks + " ticks";
+        if (replay.names.length > MAX_BIRDS) return "Claims " + replay.names.length + " birds";
+
+        player.load(replay);
+        player.start(engine);
+        while (!engine.isGameOver() && player.step(engine)) {
+            // Stops at game over even if the recording claims to go on
+        }
+
+        if (engine.getTicks() != replay.ticks) {
+            return "Round ended on tick " + engine.getTicks() + ", replay claims " + replay.ticks;
+        }
+        if (!engine.isGameOver()) return "Round still going on tick " + replay.ticks;
+        for (int i = 0; i < replay.names.length; i++) {
+            if (engine.getScore(i) != replay.scores[i]) {
+                return replay.names[i] + " scored " + engine.getScore(i) + ", replay claims " + replay.scores[i];
+            }
+        }
+        if (engine.getCourse().hash(replay.ticks) != replay.courseHash) return "Played on a different course";
+        if (engine.stateHash() != replay.finalHash) return "Final state differs";
+        return null;
+    }
+
+    /** Outcome for one submitted replay. */
+    public static final class Result {
+        private final String id;
+        private final Replay replay;
+        private final String rejection;
+        private final RuntimeException error;
+        private final long nanos;
+
+        Result(String id, Replay replay, String rejection, RuntimeException error, long nanos) {
+            this.id = id;
+            this.replay = replay;
+            this.rejection = rejection;
+            this.error = error;
+            this.nanos = nanos;
+        }
+
+        // The id the replay was submitted with
+        public String getId() {
+            return id;
+        }
+
+        public Replay getReplay() {
+            return replay;
+        }
+
+        public boolean isAccepted() {
+            return rejection == null && error == null;
+        }
+
+        // Why the replay was rejected, or null
+        public String getRejection() {
+            return rejection;
+        }
+
+        // What broke while checking it, or null; the replay was then neither accepted nor rejected
+        public RuntimeException getError() {
+            return error;
+        }
+
+        // Time spent re-playing it
+        public long getNanos() {
+            return nanos;
+        }
+
+        @Override
+        public String toString() {
+            if (error != null) return "ERROR  " + id + "  " + error;
+            if (rejection != null) return "REJECT " + id + "  " + rejection;
+            StringBuilder sb = new StringBuilder("OK     ").append(id).append("  ticks=").append(replay.ticks);
+            for (int i = 0; i < replay.names.length; i++) {
+                sb.append("  ").append(replay.names[i]).append('=').append(replay.scores[i]);
+            }
+            return sb.toString();
+        }
+    }
+
+    private static final class Submission {
+        final String id;
+        final Replay replay;
+
+        Submission(String id, Replay replay) {
+            this.id = id;
+            this.replay = replay;
+        }
+    }
+
+    // Verifies replay files, and every file in the given directories, printing each result as it comes in
+    public static void main(String[] args) throws InterruptedException, IOException {
+        int threads = Runtime.getRuntime().availableProcessors();
+        int inputs = 0;
+        for (String arg : args) {
+            if (arg.startsWith("--threads=")) {
+                threads = Integer.parseInt(arg.substring("--threads=".length()));
+            } else {
+                inputs++;
+            }
+        }
+        if (inputs == 0) {
+            System.out.println("usage: ReplayVerifier [--threads=N] <replay file or directory>...");
+            return;
+        }
+
+        AtomicInteger accepted = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        AtomicInteger errors = new AtomicInteger();
+        long start = System.nanoTime();
+        try (ReplayVerifier verifier = new ReplayVerifier(threads, result -> {
+            (result.getError() != null ? errors : result.isAccepted() ? accepted : rejected).incrementAndGet();
+            System.out.println(result);
+            if (result.getError() != null) result.getError().printStackTrace();
+        })) {
+            for (String arg : args) {
+                if (arg.startsWith("--")) continue;
+                Path input = Path.of(arg);
+                if (Files.isDirectory(input)) {
+                    try (DirectoryStream<Path> files = Files.newDirectoryStream(input, Files::isRegularFile)) {
+                        for (Path file : files) {
+                            submit(verifier, file, rejected);
+                        }
+                    }
+                } else {
+                    submit(verifier, input, rejected);
+                }
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        int total = accepted.get() + rejected.get() + errors.get();
+        System.out.printf("%d replays in %.2f s (%.0f/s) on %d threads: %d accepted, %d rejected, %d errors%n",
+                total, seconds, total / seconds, threads, accepted.get(), rejected.get(), errors.get());
+        if (errors.get() > 0) System.exit(2); // The verifier is broken; its verdicts mean nothing
+        if (rejected.get() > 0) System.exit(1);
+    }
+
+    private static void submit(ReplayVerifier verifier, Path file, AtomicInteger rejected) throws InterruptedException {
+        try {
+            verifier.submit(file.toString(), Replay.decode(ByteBuffer.wrap(Files.readAllBytes(file))));
+        } catch (IOException e) {
+            rejected.incrementAndGet();
+            System.out.println("REJECT " + file + "  " + e.getMessage());
+        }
+    }
+}
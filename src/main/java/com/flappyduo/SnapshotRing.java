@@ -0,0 +1,50 @@
+package com.flappyduo;
+
+/**
+ * The last few ticks of game state, for rollback. Save after every tick; to
+ * correct a mispredicted input, restore the snapshot from the tick it applied
+ * to and re-run the ticks since with the right inputs. Detach the listener and
+ * any recorder from the engine while re-running, or sounds and recorded ticks
+ * would repeat.
+ */
+public class SnapshotRing {
+
+    public static final int DEFAULT_CAPACITY = 16;
+
+    private final GameSnapshot[] slots;
+
+    public SnapshotRing(int capacity) {
+        slots = new GameSnapshot[capacity];
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new GameSnapshot();
+        }
+    }
+
+    public SnapshotRing() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    // Saves the engine's current state into the slot for its tick, replacing the oldest
+    public void save(GameEngine engine) {
+        engine.save(slots[engine.getTicks() % slots.length]);
+    }
+
+    // Rolls the engine back to the given tick; false if that tick is no longer (or not yet) saved
+    public boolean restore(GameEngine engine, int tick) {
+        if (tick < 0) return false;
+        GameSnapshot slot = slots[tick % slots.length];
+        if (!slot.valid || slot.ticks != tick) return false;
+        engine.restore(slot);
+        return true;
+    }
+
+    public void clear() {
+        for (GameSnapshot slot : slots) {
+            slot.valid = false;
+        }
+    }
+
+    public int capacity() {
+        return slots.length;
+    }
+}
@@ -1,45 +1,38 @@
 package com.flappyduo;
 
-import javax.sound.sampled.*;
-
 public class Sound {
 
+    // Outside the holder, so attaching metrics doesn't start audio
+    private static final LatencyHistogram MIX_TIMES = new LatencyHistogram();
+
+    // Started on first use; all sounds go through this one mixer thread
+    private static class Holder {
+        static final SoundMixer MIXER = new SoundMixer(MIX_TIMES);
+
+        static {
+            MIXER.start();
+        }
+    }
+
     public static void playJump() {
-        playTone(400, 100, 0.5); // Higher pitch, short
+        Holder.MIXER.play(SoundMixer.JUMP);
     }
 
     public static void playScore() {
-        playTone(600, 100, 0.3); // Even higher
-        new Thread(() -> {
-            try { Thread.sleep(100); } catch (Exception e) {}
-            playTone(800, 150, 0.4);
-        }).start();
+        Holder.MIXER.play(SoundMixer.SCORE);
     }
 
     public static void playCrash() {
-        playTone(150, 300, 0.6); // Low pitch, longer
+        Holder.MIXER.play(SoundMixer.CRASH);
+    }
+
+    // Renders the tones and opens the audio device now rather than on the first sound
+    public static void preload() {
+        Holder.MIXER.isAvailable();
     }
 
-    private static void playTone(int hz, int msecs, double vol) {
-        new Thread(() -> {
-            try {
-                float sampleRate = 44100;
-                byte[] buf = new byte[1];
-                AudioFormat af = new AudioFormat(sampleRate, 8, 1, true, false);
-                SourceDataLine sdl = AudioSystem.getSourceDataLine(af);
-                sdl.open(af);
-                sdl.start();
-                
-                for (int i = 0; i < msecs * sampleRate / 1000; i++) {
-                    double angle = i / (sampleRate / hz) * 2.0 * Math.PI;
-                    buf[0] = (byte) (Math.sin(angle) * 127.0 * vol);
-                    sdl.write(buf, 0, 1);
-                }
-                sdl.drain();
-                sdl.close();
-            } catch (Exception e) {
-                // Silent fail if audio unavailable
-            }
-        }).start();
+    // Time the mixer spends producing each block
+    public static LatencyHistogram mixTimes() {
+        return MIX_TIMES;
     }
 }
@@ -0,0 +1,152 @@
+package com.flappyduo;
+
+import javax.sound.sampled.*;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * One long-lived audio thread that owns a single open line. Tones are rendered
+ * once into PCM buffers; play requests are counters the mixer drains each block,
+ * so callers never block, allocate or touch the audio device.
+ */
+public class SoundMixer implements Runnable {
+
+    public static final int JUMP = 0;
+    public static final int SCORE = 1;
+    public static final int CRASH = 2;
+
+    private static final float SAMPLE_RATE = 44100;
+    private static final int BLOCK_FRAMES = 256; // ~6 ms per write
+    private static final int LINE_BLOCKS = 4;    // Line buffer depth; bounds output latency
+    private static final int MAX_VOICES = 16;
+    private static final int FADE_FRAMES = 64;   // Short ramps so overlapping tones don't click
+
+    private final short[][] tones = new short[3][];
+    private final AtomicIntegerArray pending = new AtomicIntegerArray(3);
+
+    // Active voices: which tone and how far into it
+    private final int[] voiceTone = new int[MAX_VOICES];
+    private final int[] voicePos = new int[MAX_VOICES];
+    private int voiceCount = 0;
+
+    private final int[] mix = new int[BLOCK_FRAMES];
+    private final byte[] out = new byte[BLOCK_FRAMES * 2];
+
+    private volatile boolean available = true;
+    private final LatencyHistogram mixTimes;
+
+    public SoundMixer() {
+        this(new LatencyHistogram());
+    }
+
+    // Records mixing times into the given histogram, which may exist long before the mixer does
+    public SoundMixer(LatencyHistogram mixTimes) {
+        this.mixTimes = mixTimes;
+        tones[JUMP] = new short[frames(100)];
+        addTone(tones[JUMP], 0, 400, 100, 0.5); // Higher pitch, short
+
+        tones[SCORE] = new short[frames(250)];
+        addTone(tones[SCORE], 0, 600, 100, 0.3); // Even higher
+        addTone(tones[SCORE], frames(100), 800, 150, 0.4);
+
+        tones[CRASH] = new short[frames(300)];
+        addTone(tones[CRASH], 0, 150, 300, 0.6); // Low pitch, longer
+    }
+
+    public void start() {
+        Thread thread = new Thread(this, "flappyduo-audio");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    // Safe from any thread; never blocks
+    public void play(int tone) {
+        if (available) {
+            pending.incrementAndGet(tone);
+        }
+    }
+
+    public LatencyHistogram getMixTimes() {
+        return mixTimes;
+    }
+
+    public boolean isAvailable() {
+        return available;
+    }
+
+    @Override
+    public void run() {
+        SourceDataLine line;
+        try {
+            AudioFormat af = new AudioFormat(SAMPLE_RATE, 16, 1, true, false);
+            line = AudioSystem.getSourceDataLine(af);
+            line.open(af, out.length * LINE_BLOCKS);
+            line.start();
+        } catch (Exception e) {
+            available = false; // Silent fail if audio unavailable
+            return;
+        }
+
+        while (true) {
+            long start = System.nanoTime();
+            startPendingVoices();
+            mixBlock();
+            mixTimes.record(System.nanoTime() - start);
+            line.write(out, 0, out.length); // Blocks until the line has room, which paces this thread
+        }
+    }
+
+    private void startPendingVoices() {
+        for (int t = 0; t < tones.length; t++) {
+            int requests = pending.getAndSet(t, 0);
+            for (int r = 0; r < requests && voiceCount < MAX_VOICES; r++) {
+                voiceTone[voiceCount] = t;
+                voicePos[voiceCount] = 0;
+                voiceCount++;
+            }
+        }
+    }
+
+    private void mixBlock() {
+        Arrays.fill(mix, 0);
+
+        int v = 0;
+        while (v < voiceCount) {
+            short[] tone = tones[voiceTone[v]];
+            int pos = voicePos[v];
+            int n = Math.min(BLOCK_FRAMES, tone.length - pos);
+            for (int i = 0; i < n; i++) {
+                mix[i] += tone[pos + i];
+            }
+            voicePos[v] = pos + n;
+
+            if (voicePos[v] >= tone.length) {
+                // Finished; swap the last voice into this slot
+                voiceCount--;
+                voiceTone[v] = voiceTone[voiceCount];
+                voicePos[v] = voicePos[voiceCount];
+            } else {
+                v++;
+            }
+        }
+
+        for (int i = 0; i < BLOCK_FRAMES; i++) {
+            int s = Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, mix[i]));
+            out[2 * i] = (byte) s;
+            out[2 * i + 1] = (byte) (s >> 8);
+        }
+    }
+
+    private static int frames(int msecs) {
+        return (int) (msecs * SAMPLE_RATE / 1000);
+    }
+
+    private static void addTone(short[] buf, int offset, int hz, int msecs, double vol) {
+        int n = frames(msecs);
+        for (int i = 0; i < n; i++) {
+            double angle = i / (SAMPLE_RATE / hz) * 2.0 * Math.PI;
+            double fade = Math.min(1.0, Math.min(i, n - 1 - i) / (double) FADE_FRAMES);
+            buf[offset + i] += (short) (Math.sin(angle) * Short.MAX_VALUE * vol * fade);
+        }
+    }
+}
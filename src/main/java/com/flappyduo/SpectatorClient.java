@@ -0,0 +1,276 @@
+package com.flappyduo;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Viewer side of {@link SpectatorServer}: rebuilds the game from keyframes and
+ * deltas, running the same bird and pipe motion the deltas leave out. Reads
+ * without blocking, so it can be polled from a game loop or, for many headless
+ * viewers, from one thread. {@link #capture} fills a {@link FrameState}, so the
+ * normal renderer draws it.
+ */
+public class SpectatorClient implements Closeable {
+
+    private final SocketChannel channel;
+    private ByteBuffer in = ByteBuffer.allocate(16 * 1024);
+    private boolean closed;
+
+    // Rebuilt game state; only valid once a keyframe has arrived
+    private boolean synced;
+    private long seed;
+    private int tick;
+    private boolean gameOver;
+    private int speed;
+    private int birdX;
+    private int birdCount;
+    private String[] name = new String[0];
+    private int[] y = new int[0];
+    private int[] prevY = new int[0];
+    private int[] velocity = new int[0];
+    private int[] wing = new int[0];
+    private boolean[] dead = new boolean[0];
+    private int[] score = new int[0];
+    private int pipeCount;
+    private int[] pipeX = new int[16];
+    private int[] pipePrevX = new int[16];
+    private int[] pipeGapY = new int[16];
+    private int capturedTick = -1;
+
+    // Stats
+    private long keyframes, deltas, bytesReceived;
+
+    private SpectatorClient(SocketChannel channel) {
+        this.channel = channel;
+    }
+
+    public static SpectatorClient connect(InetSocketAddress address) throws IOException {
+        SocketChannel channel = SocketChannel.open(address);
+        channel.configureBlocking(false);
+        channel.socket().setTcpNoDelay(true);
+        return new SpectatorClient(channel);
+    }
+
+    // Reads and applies everything that has arrived; false once the server has gone
+    public boolean poll() throws IOException {
+        if (closed) return false;
+        while (true) {
+            int n = channel.read(in);
+            if (n < 0) {
+                closed = true;
+                break;
+            }
+            if (n == 0) break;
+            bytesReceived += n;
+            in.flip();
+            while (in.remaining() >= 4) {
+                int length = in.getInt(in.position());
+                if (in.remaining() < 4 + length) break;
+                int end = in.position() + 4 + length;
+                in.position(in.position() + 4);
+                apply();
+                in.position(end);
+            }
+            in.compact();
+            if (!in.hasRemaining()) {
+                in.flip();
+                in = ByteBuffer.allocate(in.capacity() * 2).put(in); // A keyframe bigger than the buffer
+            }
+        }
+        return !closed;
+    }
+
+    private void apply() {
+        byte type = in.get();
+        if (type == SpectatorServer.KEYFRAME) {
+            applyKeyframe();
+            keyframes++;
+        } else if (type == SpectatorServer.DELTA && synced) {
+            applyDelta();
+            deltas++;
+        }
+    }
+
+    private void applyKeyframe() {
+        tick = in.getInt();
+        seed = in.getLong();
+        gameOver = in.get() != 0;
+        speed = in.getInt();
+        int n = in.getInt();
+        birdX = in.getInt();
+        ensureBirds(n);
+        for (int i = 0; i < n; i++) {
+            byte[] b = new byte[in.get() & 0xFF];
+            in.get(b);
+            name[i] = new String(b, StandardCharsets.UTF_8);
+            y[i] = in.getInt();
+            prevY[i] = y[i];
+            velocity[i] = in.getInt();
+            wing[i] = in.get();
+            dead[i] = in.get() != 0;
+            score[i] = in.getInt();
+        }
+        int pipes = in.getInt();
+        ensurePipes(pipes);
+        for (int i = 0; i < pipes; i++) {
+            pipeX[i] = in.getInt();
+            pipePrevX[i] = pipeX[i];
+            pipeGapY[i] = in.getInt();
+        }
+        synced = true;
+    }
+
+    // Same steps, in the same order, as SpectatorServer.encodeDelta
+    private void applyDelta() {
+        tick = in.getInt();
+        int flags = in.get();
+        gameOver = (flags & SpectatorServer.GAME_OVER) != 0;
+        if ((flags & SpectatorServer.SPEED) != 0) speed = SpectatorServer.getVarint(in);
+
+        for (int i = 0; i < pipeCount; i++) {
+            pipePrevX[i] = pipeX[i];
+            pipeX[i] -= speed;
+        }
+        int removed = SpectatorServer.getVarint(in);
+        int spawned = SpectatorServer.getVarint(in);
+        int kept = pipeCount - removed;
+        System.arraycopy(pipeX, removed, pipeX, 0, kept);
+        System.arraycopy(pipePrevX, removed, pipePrevX, 0, kept);
+        System.arraycopy(pipeGapY, removed, pipeGapY, 0, kept);
+        ensurePipes(kept + spawned);
+        for (int i = kept; i < pipeCount; i++) {
+            pipeX[i] = SpectatorServer.unzigzag(SpectatorServer.getVarint(in));
+            pipePrevX[i] = pipeX[i] + speed; // New pipes moved once on the tick they spawned
+            pipeGapY[i] = SpectatorServer.getVarint(in);
+        }
+
+        for (int i = 0; i < birdCount; i++) {
+            int bf = in.get();
+            prevY[i] = y[i];
+            if (!dead[i]) velocity[i] += Flock.GRAVITY;
+            if ((bf & SpectatorServer.BIRD_VELOCITY) != 0) velocity[i] += SpectatorServer.unzigzag(SpectatorServer.getVarint(in));
+            if (!dead[i]) y[i] += velocity[i];
+            if ((bf & SpectatorServer.BIRD_Y) != 0) y[i] += SpectatorServer.unzigzag(SpectatorServer.getVarint(in));
+            if ((bf & SpectatorServer.BIRD_DEAD) != 0) dead[i] = !dead[i];
+            if ((bf & SpectatorServer.BIRD_SCORE) != 0) score[i] += SpectatorServer.unzigzag(SpectatorServer.getVarint(in));
+            if ((bf & SpectatorServer.BIRD_WING) != 0) wing[i] = in.get();
+        }
+    }
+
+    private void ensureBirds(int n) {
+        if (y.length < n) {
+            name = Arrays.copyOf(name, n);
+            y = new int[n];
+            prevY = new int[n];
+            velocity = new int[n];
+            wing = new int[n];
+            dead = new boolean[n];
+            score = new int[n];
+        }
+        birdCount = n;
+    }
+
+    private void ensurePipes(int n) {
+        if (pipeX.length < n) {
+            int cap = Math.max(n, pipeX.length * 2);
+            pipeX = Arrays.copyOf(pipeX, cap);
+            pipePrevX = Arrays.copyOf(pipePrevX, cap);
+            pipeGapY = Arrays.copyOf(pipeGapY, cap);
+        }
+        pipeCount = n;
+    }
+
+    // Copies the rebuilt state into a frame for the renderer; particles aren't part of the feed
+    public void capture(FrameState frame) {
+        frame.inMenu = false;
+        frame.gameOver = gameOver;
+        frame.moved = tick != capturedTick;
+        capturedTick = tick;
+
+        frame.ensureBirds(birdCount);
+        for (int i = 0; i < birdCount; i++) {
+            frame.birdX[i] = birdX;
+            frame.birdY[i] = y[i];
+            frame.birdPrevY[i] = prevY[i];
+            frame.birdWing[i] = wing[i];
+            frame.birdDead[i] = dead[i];
+            frame.birdName[i] = name[i];
+            frame.score[i] = score[i];
+        }
+
+        frame.ensurePipes(pipeCount);
+        for (int i = 0; i < pipeCount; i++) {
+            frame.pipeX[i] = pipeX[i];
+            frame.pipePrevX[i] = pipePrevX[i];
+            frame.pipeGapY[i] = pipeGapY[i];
+        }
+        frame.ensureParticles(0);
+    }
+
+    public boolean isSynced() {
+        return synced;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public int getTick() {
+        return tick;
+    }
+
+    public boolean isGameOver() {
+        return gameOver;
+    }
+
+    public int getBirdCount() {
+        return birdCount;
+    }
+
+    public int getBirdY(int i) {
+        return y[i];
+    }
+
+    public boolean isDead(int i) {
+        return dead[i];
+    }
+
+    public int getScore(int i) {
+        return score[i];
+    }
+
+    public int getPipeCount() {
+        return pipeCount;
+    }
+
+    public int getPipeX(int i) {
+        return pipeX[i];
+    }
+
+    public int getPipeGapY(int i) {
+        return pipeGapY[i];
+    }
+
+    public long getKeyframes() {
+        return keyframes;
+    }
+
+    public long getDeltas() {
+        return deltas;
+    }
+
+    public long getBytesReceived() {
+        return bytesReceived;
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        channel.close();
+    }
+}
@@ -0,0 +1,556 @@
+package com.flappyduo;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Streams the authoritative game to any number of spectators over TCP. After
+ * each tick the sim thread encodes one compact delta against the previous tick
+ * and hands it over; a single selector thread fans it out to every client.
+ *
+ * <p>Deltas only carry what the viewer can't work out itself. Birds fall by
+ * the same physics on both sides, so a bird costs one flag byte per tick
+ * unless it jumped, died, scored or flapped. Pipes all move by the pipe speed,
+ * so only spawned pipes and the number culled go out. Keyframes with the full
+ * state go to everyone every {@value #KEYFRAME_INTERVAL} ticks, and to new or
+ * lagging clients as soon as the sim can encode one.
+ *
+ * <p>The sim thread encodes into a ring of reused message buffers, and the
+ * selector thread collects them by polling every {@value #POLL_MILLIS} ms
+ * while ticks keep coming. Only once it has gone idle does it block, and only
+ * then does publishing wake it, so the sim thread normally makes no system
+ * call and never hands the core to the selector in the middle of a tick.
+ *
+ * <p>Every client copies each message into its own send buffer. A client whose
+ * buffer grows past {@value #MAX_QUEUED_BYTES} bytes has its pending messages
+ * dropped and waits for a keyframe, so a slow spectator can only ever fall
+ * behind, never hold up the others or the game. Neither thread allocates per
+ * tick once the buffers have grown to size.
+ */
+public class SpectatorServer implements Closeable {
+
+    public static final int DEFAULT_PORT = 24681;
+
+    static final byte KEYFRAME = 1;
+    static final byte DELTA = 2;
+
+    // Delta flags
+    static final int GAME_OVER = 1;
+    static final int SPEED = 2;
+    static final int BIRD_VELOCITY = 1;
+    static final int BIRD_Y = 2;
+    static final int BIRD_DEAD = 4;
+    static final int BIRD_SCORE = 8;
+    static final int BIRD_WING = 16;
+
+    static final int KEYFRAME_INTERVAL = 250; // Ticks; 5 s at 50 Hz
+    static final int MAX_QUEUED_BYTES = 64 * 1024;
+    static final int SEND_BUFFER_BYTES = 32 * 1024; // Kernel buffer per client, so a stalled one reaches MAX_QUEUED_BYTES
+    static final int POLL_MILLIS = 4;
+    private static final int IDLE_POLLS = 25; // Empty polls before the selector thread blocks until woken
+    private static final int RING = 64; // Messages the sim thread can be ahead of the selector thread
+
+    private final ServerSocketChannel server;
+    private final Selector selector;
+    private final Message[] ring = new Message[RING];
+    private volatile long head; // Next slot the sim thread fills
+    private volatile long tail; // Next slot the selector thread reads; slots in between are full
+    private volatile boolean parked; // Selector thread is blocked and needs a wakeup
+    private final List<Client> clients = new ArrayList<>(); // Selector thread only
+    private final Thread thread;
+    private volatile boolean running = true;
+    private volatile boolean keyframeWanted; // Set by the selector thread when a client needs one
+
+    // Stats
+    private volatile int clientCount;
+    private volatile long bytesQueued, messagesDropped, keyframes, deltas;
+    private volatile long overflows; // Ticks not sent because the ring was full
+
+    // What the spectators last saw; sim thread only
+    private ByteBuffer scratch = ByteBuffer.allocate(4096); // Grows to the largest message so far
+    private boolean synced;
+    private long seed;
+    private int tick = -1;
+    private int birdCount;
+    private int[] y = new int[0];
+    private int[] velocity = new int[0];
+    private int[] wing = new int[0];
+    private boolean[] dead = new boolean[0];
+    private int[] score = new int[0];
+    private int speed;
+    private int pipeCount;
+    private int[] pipeX = new int[16];
+    private int[] pipeGapY = new int[16];
+
+    private SpectatorServer(ServerSocketChannel server, Selector selector) {
+        this.server = server;
+        this.selector = selector;
+        this.thread = new Thread(this::run, "flappyduo-spectators");
+        this.thread.setDaemon(true);
+        for (int i = 0; i < RING; i++) {
+            ring[i] = new Message();
+        }
+    }
+
+    public static SpectatorServer start(int port) throws IOException {
+        ServerSocketChannel server = ServerSocketChannel.open();
+        server.configureBlocking(false);
+        server.bind(new InetSocketAddress(port));
+        Selector selector = Selector.open();
+        server.register(selector, SelectionKey.OP_ACCEPT);
+        SpectatorServer s = new SpectatorServer(server, selector);
+        s.thread.start();
+        return s;
+    }
+
+    /**
+     * Sends whatever changed since the last call; call from the sim thread after
+     * each tick. Costs one small encode and copy, no I/O. Does nothing if the
+     * engine hasn't ticked; a new round or a state the deltas can't express (a
+     * rollback, say) goes out as a keyframe. If the selector thread is a whole
+     * ring behind, the tick is skipped and everyone gets the next one as a keyframe.
+     */
+    public void publish(GameEngine engine) {
+        int ticks = engine.getTicks();
+        if (synced && ticks == tick && engine.getSeed() == seed) return;
+
+        long h = head;
+        if (h - tail >= RING) {
+            synced = false;
+            overflows++;
+            return;
+        }
+        Message m = ring[(int) (h % RING)];
+
+        boolean next = synced && ticks == tick + 1 && engine.getSeed() == seed
+                && engine.getBirdCount() == birdCount;
+        m.hasDelta = next && encodeDelta(engine);
+        if (m.hasDelta) m.delta = copy(m.delta);
+
+        boolean periodic = ticks % KEYFRAME_INTERVAL == 0;
+        m.hasKeyframe = !m.hasDelta || periodic || keyframeWanted;
+        if (m.hasKeyframe) {
+            keyframeWanted = false;
+            encodeKeyframe(engine);
+            m.keyframe = copy(m.keyframe);
+        }
+        m.keyframeForAll = !m.hasDelta || periodic;
+        remember(engine);
+
+        head = h + 1;
+        if (parked) selector.wakeup();
+    }
+
+    // False if the pipes changed in a way deltas can't describe
+    private boolean encodeDelta(GameEngine engine) {
+        ByteBuffer b = begin(DELTA);
+        b.putInt(engine.getTicks());
+        int newSpeed = engine.getPipeSpeed();
+        int flags = (engine.isGameOver() ? GAME_OVER : 0) | (newSpeed != speed ? SPEED : 0);
+        b.put((byte) flags);
+        if (newSpeed != speed) putVarint(b, newSpeed);
+
+        // Pipes: ours all move by the new speed, then some leave the front and some join the back
+        for (int i = 0; i < pipeCount; i++) {
+            pipeX[i] -= newSpeed;
+        }
+        int n = engine.getPipeCount();
+        int removed = 0;
+        if (n == 0) {
+            removed = pipeCount;
+        } else {
+            Pipe first = engine.getPipe(0);
+            while (removed < pipeCount && (pipeX[removed] != first.getX() || pipeGapY[removed] != first.getGapY())) {
+                removed++;
+            }
+        }
+        int kept = pipeCount - removed;
+        if (kept > n) return false;
+        for (int k = 0; k < kept; k++) {
+            Pipe p = engine.getPipe(k);
+            if (pipeX[removed + k] != p.getX() || pipeGapY[removed + k] != p.getGapY()) return false;
+        }
+        b = room(b, 10);
+        putVarint(b, removed);
+        putVarint(b, n - kept);
+        for (int i = kept; i < n; i++) {
+            b = room(b, 10);
+            Pipe p = engine.getPipe(i);
+            putVarint(b, zigzag(p.getX()));
+            putVarint(b, p.getGapY());
+        }
+
+        // Birds: one flag byte each, plus whatever the viewer's own physics won't predict
+        Flock birds = engine.getBirds();
+        for (int i = 0; i < birdCount; i++) {
+            b = room(b, 32);
+            int v = birds.getVelocity(i);
+            int predictedV = dead[i] ? velocity[i] : velocity[i] + Flock.GRAVITY;
+            int predictedY = dead[i] ? y[i] : y[i] + v;
+            int by = birds.getY(i);
+            int s = birds.getScore(i);
+            int w = birds.getWingState(i);
+            boolean d = birds.isDead(i);
+            int bf = (v != predictedV ? BIRD_VELOCITY : 0) | (by != predictedY ? BIRD_Y : 0)
+                    | (d != dead[i] ? BIRD_DEAD : 0) | (s != score[i] ? BIRD_SCORE : 0) | (w != wing[i] ? BIRD_WING : 0);
+            b.put((byte) bf);
+            if ((bf & BIRD_VELOCITY) != 0) putVarint(b, zigzag(v - predictedV));
+            if ((bf & BIRD_Y) != 0) putVarint(b, zigzag(by - predictedY));
+            if ((bf & BIRD_SCORE) != 0) putVarint(b, zigzag(s - score[i]));
+            if ((bf & BIRD_WING) != 0) b.put((byte) w);
+        }
+        finish(b);
+        return true;
+    }
+
+    private void encodeKeyframe(GameEngine engine) {
+        ByteBuffer b = begin(KEYFRAME);
+        b.putInt(engine.getTicks()).putLong(engine.getSeed());
+        b.put((byte) (engine.isGameOver() ? 1 : 0)).putInt(engine.getPipeSpeed());
+
+        Flock birds = engine.getBirds();
+        b.putInt(birds.size()).putInt(birds.getX());
+        for (int i = 0; i < birds.size(); i++) {
+            byte[] name = birds.getName(i).getBytes(StandardCharsets.UTF_8);
+            int length = Math.min(name.length, 255);
+            b = room(b, length + 32);
+            b.put((byte) length).put(name, 0, length);
+            b.putInt(birds.getY(i)).putInt(birds.getVelocity(i)).put((byte) birds.getWingState(i));
+            b.put((byte) (birds.isDead(i) ? 1 : 0)).putInt(birds.getScore(i));
+        }
+
+        b = room(b, 4 + engine.getPipeCount() * 8);
+        b.putInt(engine.getPipeCount());
+        for (int i = 0; i < engine.getPipeCount(); i++) {
+            Pipe p = engine.getPipe(i);
+            b.putInt(p.getX()).putInt(p.getGapY());
+        }
+        finish(b);
+    }
+
+    private void remember(GameEngine engine) {
+        Flock birds = engine.getBirds();
+        int n = birds.size();
+        if (y.length < n) {
+            y = new int[n];
+            velocity = new int[n];
+            wing = new int[n];
+            dead = new boolean[n];
+            score = new int[n];
+        }
+        birdCount = n;
+        for (int i = 0; i < n; i++) {
+            y[i] = birds.getY(i);
+            velocity[i] = birds.getVelocity(i);
+            wing[i] = birds.getWingState(i);
+            dead[i] = birds.isDead(i);
+            score[i] = birds.getScore(i);
+        }
+
+        pipeCount = engine.getPipeCount();
+        if (pipeX.length < pipeCount) {
+            pipeX = Arrays.copyOf(pipeX, pipeCount * 2);
+            pipeGapY = Arrays.copyOf(pipeGapY, pipeCount * 2);
+        }
+        for (int i = 0; i < pipeCount; i++) {
+            pipeX[i] = engine.getPipe(i).getX();
+            pipeGapY[i] = engine.getPipe(i).getGapY();
+        }
+        speed = engine.getPipeSpeed();
+        seed = engine.getSeed();
+        tick = engine.getTicks();
+        synced = true;
+    }
+
+    // Messages are a 4-byte length, then a type byte and the body
+    private ByteBuffer begin(byte type) {
+        scratch.clear();
+        scratch.putInt(0).put(type);
+        return room(scratch, 64);
+    }
+
+    // The buffer to keep writing to, grown if fewer than the given bytes are left
+    private ByteBuffer room(ByteBuffer b, int bytes) {
+        if (b.remaining() >= bytes) return b;
+        ByteBuffer bigger = ByteBuffer.allocate(Math.max(b.capacity() * 2, b.position() + bytes));
+        b.flip();
+        bigger.put(b);
+        scratch = bigger;
+        return bigger;
+    }
+
+    private static void finish(ByteBuffer b) {
+        b.putInt(0, b.position() - 4);
+    }
+
+    // Copies the finished message in scratch into a ring slot's buffer, grown if it's too small, ready to read
+    private ByteBuffer copy(ByteBuffer into) {
+        int n = scratch.position();
+        if (into.capacity() < n) into = ByteBuffer.allocate(Math.max(n, into.capacity() * 2));
+        into.clear();
+        into.put(scratch.array(), 0, n).flip();
+        return into;
+    }
+
+    static int zigzag(int v) {
+        return (v << 1) ^ (v >> 31);
+    }
+
+    static int unzigzag(int v) {
+        return (v >>> 1) ^ -(v & 1);
+    }
+
+    static void putVarint(ByteBuffer b, int v) {
+        while ((v & ~0x7F) != 0) {
+            b.put((byte) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        b.put((byte) v);
+    }
+
+    static int getVarint(ByteBuffer b) {
+        int v = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte x = b.get();
+            v |= (x & 0x7F) << shift;
+            if (x >= 0) return v;
+        }
+    }
+
+    // Selector thread: accepts spectators, copies new messages to every client and sends as much as each socket allows
+    private void run() {
+        int idle = 0;
+        try {
+            while (running) {
+                if (idle < IDLE_POLLS) {
+                    selector.select(POLL_MILLIS);
+                } else {
+                    parked = true; // Before looking at the ring, so a publish either sees it or gets seen
+                    if (tail == head) {
+                        selector.select();
+                    } else {
+                        selector.selectNow();
+                    }
+                    parked = false;
+                }
+                Iterator<SelectionKey> it = selector.selectedKeys().iterator();
+                while (it.hasNext()) {
+                    SelectionKey key = it.next();
+                    it.remove();
+                    if (!key.isValid()) continue;
+                    if (key.isAcceptable()) {
+                        accept();
+                    } else {
+                        Client c = (Client) key.attachment();
+                        if (key.isReadable()) c.read();
+                        if (key.isValid() && key.isWritable()) c.flush();
+                    }
+                }
+
+                long t = tail;
+                long h = head;
+                idle = t == h ? idle + 1 : 0;
+                for (; t < h; t++) {
+                    Message m = ring[(int) (t % RING)];
+                    for (int i = 0; i < clients.size(); i++) {
+                        clients.get(i).offer(m);
+                    }
+                    tail = t + 1; // Copied out, so the sim thread may reuse the slot
+                }
+                for (int i = 0; i < clients.size(); i++) {
+                    Client c = clients.get(i);
+                    if (c.out.position() > 0) c.flush();
+                }
+                clients.removeIf(c -> !c.channel.isOpen());
+                clientCount = clients.size();
+            }
+        } catch (IOException e) {
+            if (running) System.err.println("Spectator server stopped: " + e.getMessage());
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while ((channel = server.accept()) != null) {
+            channel.configureBlocking(false);
+            channel.socket().setTcpNoDelay(true);
+            channel.setOption(StandardSocketOptions.SO_SNDBUF, SEND_BUFFER_BYTES);
+            Client c = new Client(channel);
+            c.key = channel.register(selector, SelectionKey.OP_READ, c);
+            clients.add(c);
+            keyframeWanted = true;
+        }
+    }
+
+    /** One encoded tick: a delta for clients in sync and a keyframe for those that aren't (or for all). A reused ring slot. */
+    private static final class Message {
+        ByteBuffer delta = ByteBuffer.allocate(256);
+        ByteBuffer keyframe = ByteBuffer.allocate(1024);
+        boolean hasDelta, hasKeyframe, keyframeForAll;
+    }
+
+    private final class Client {
+        final SocketChannel channel;
+        final ByteBuffer sink = ByteBuffer.allocate(256); // Spectators have nothing to say; anything sent is discarded
+        ByteBuffer out = ByteBuffer.allocate(4096); // Unsent messages, back to back from 0 up to position
+        SelectionKey key;
+        int headStart; // Where the first unsent message began; below 0 once part of it has gone out
+        int headEnd; // Where it ends
+        int messages; // Messages in out, counting a partly sent one
+        boolean writeInterest;
+        boolean waiting = true; // Needs a keyframe before deltas mean anything
+
+        Client(SocketChannel channel) {
+            this.channel = channel;
+        }
+
+        void offer(Message m) {
+            ByteBuffer data;
+            if (m.hasKeyframe && (waiting || m.keyframeForAll)) {
+                data = m.keyframe;
+                waiting = false;
+            } else if (!waiting && m.hasDelta) {
+                data = m.delta;
+            } else {
+                return; // Still waiting for a keyframe
+            }
+
+            int n = data.remaining();
+            int queued = out.position();
+            if (queued > 0 && queued + n > MAX_QUEUED_BYTES) {
+                drop();
+                return;
+            }
+            if (out.remaining() < n) grow(queued + n);
+            if (messages == 0) {
+                headStart = 0;
+                headEnd = n;
+            }
+            out.put(data.array(), data.arrayOffset() + data.position(), n);
+            messages++;
+            bytesQueued += n;
+            if (data == m.keyframe) keyframes++;
+            else deltas++;
+        }
+
+        // Too far behind: drop what hasn't started sending and catch up from the next keyframe
+        private void drop() {
+            boolean partial = headStart < 0; // Half-sent; the stream would break without the rest
+            messagesDropped += messages - (partial ? 1 : 0);
+            if (partial) {
+                out.position(headEnd);
+                messages = 1;
+            } else {
+                out.position(0);
+                messages = 0;
+            }
+            waiting = true;
+            keyframeWanted = true;
+        }
+
+        private void grow(int bytes) {
+            ByteBuffer bigger = ByteBuffer.allocate(Math.max(out.capacity() * 2, bytes));
+            out.flip();
+            bigger.put(out);
+            out = bigger;
+        }
+
+        void flush() {
+            if (!channel.isOpen()) return; // Closed earlier in this round; removed below
+            try {
+                if (out.position() > 0) {
+                    out.flip();
+                    channel.write(out);
+                    int sent = out.position();
+                    while (headEnd <= sent) { // Walk the length prefixes past every message that went out whole
+                        messages--;
+                        if (headEnd == out.limit()) break;
+                        headStart = headEnd;
+                        headEnd += 4 + out.getInt(headEnd);
+                    }
+                    headStart -= sent;
+                    headEnd -= sent;
+                    out.compact();
+                }
+                boolean pending = out.position() > 0;
+                if (pending != writeInterest) { // Socket buffer full, or no longer
+                    key.interestOps(pending ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+                    writeInterest = pending;
+                }
+            } catch (IOException e) {
+                close();
+            }
+        }
+
+        void read() {
+            try {
+                sink.clear();
+                if (channel.read(sink) < 0) close();
+            } catch (IOException e) {
+                close();
+            }
+        }
+
+        void close() {
+            key.cancel();
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // Already gone
+            }
+        }
+    }
+
+    public int getClientCount() {
+        return clientCount;
+    }
+
+    public long getBytesQueued() {
+        return bytesQueued;
+    }
+
+    public long getMessagesDropped() {
+        return messagesDropped;
+    }
+
+    public long getKeyframesSent() {
+        return keyframes;
+    }
+
+    public long getDeltasSent() {
+        return deltas;
+    }
+
+    // Ticks skipped because the selector thread had fallen a whole ring behind
+    public long getOverflows() {
+        return overflows;
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        selector.wakeup();
+        try {
+            thread.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (Client c : clients) {
+            c.close();
+        }
+        selector.close();
+        server.close();
+    }
+}
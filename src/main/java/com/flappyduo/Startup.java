@@ -0,0 +1,156 @@
+package com.flappyduo;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.List;
+
+/**
+ * Fast start ({@code --fast-start}). The window goes up straight away with a
+ * progress bar while two background threads do what used to happen before it
+ * appeared: one opens the audio device, registers the JMX metrics and runs a
+ * few minutes' worth of ticks through the engine; the other loads the fonts
+ * and builds the renderer's caches, then paints a few hundred menu, game and
+ * game over frames off screen. Only then does the panel take the renderer and
+ * accept keys, so the first frames the player sees run compiled code with
+ * glyphs already cached. {@link FrameMetrics} reports the time to the first
+ * frame, the time until the game was ready and how long its first real frame
+ * took to paint.
+ *
+ * <p>Class loading is the rest of a cold start. {@code src/main/cds/flappyduo.classlist}
+ * lists the classes a warm-up run loads; a class data sharing archive built
+ * from it maps them in already parsed and verified. The archive only works
+ * with the JVM build that made it, so it is built on the machine, from the
+ * game's jar (class data sharing skips classes loaded from directories):
+ *
+ * <pre>
+ * java -Xshare:dump -XX:SharedClassListFile=src/main/cds/flappyduo.classlist -XX:SharedArchiveFile=flappyduo.jsa -cp flappyduo.jar
+ * java -XX:SharedArchiveFile=flappyduo.jsa -cp flappyduo.jar com.flappyduo.Main --fast-start
+ * </pre>
+ *
+ * {@code -XX:ArchiveClassesAtExit=flappyduo.jsa} on a {@code --warmup-only}
+ * run builds one in a single step, and {@code -XX:DumpLoadedClassList=...}
+ * on the same run refreshes the list.
+ */
+class Startup {
+
+    static final int WARMUP_TICKS = 20_000;
+    static final int WARMUP_FRAMES = 300;
+    private static final String[] NAMES = { "Player 1", "Player 2" };
+
+    // Loads everything a panel made with deferred set is missing, then hands it the renderer
+    static void begin(GamePanel panel) {
+        Thread sim = new Thread(() -> {
+            Sound.preload();
+            panel.getMetrics().register();
+            panel.getQuality().register();
+            warmUpTicks(WARMUP_TICKS);
+        }, "flappyduo-init-sim");
+        Thread render = new Thread(() -> {
+            GameRenderer renderer = new GameRenderer();
+            panel.setLoadProgress(0.25f);
+            warmUpPaint(renderer, surface(), WARMUP_FRAMES, panel);
+            try {
+                sim.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            panel.finishLoading(renderer);
+        }, "flappyduo-init-render");
+        sim.setDaemon(true);
+        render.setDaemon(true);
+        sim.start();
+        render.start();
+    }
+
+    // --warmup-only: the same work with no window, for timing it and for recording class lists
+    static void warmUpOnly() {
+        long start = System.nanoTime();
+        Sound.preload();
+        new FrameMetrics().register();
+        long audio = System.nanoTime();
+        GameRenderer renderer = new GameRenderer();
+        long resources = System.nanoTime();
+        warmUpTicks(WARMUP_TICKS);
+        long ticks = System.nanoTime();
+        warmUpPaint(renderer, surface(), WARMUP_FRAMES, null);
+        long paint = System.nanoTime();
+        System.out.printf("audio+jmx %.0f ms  renderer %.0f ms  %d ticks %.0f ms  %d frames %.0f ms%n",
+                (audio - start) / 1e6, (resources - audio) / 1e6, WARMUP_TICKS, (ticks - resources) / 1e6,
+                WARMUP_FRAMES, (paint - ticks) / 1e6);
+    }
+
+    // Two birds hopping around mid-screen, round after round, on an engine of their own
+    static void warmUpTicks(int ticks) {
+        GameEngine engine = new GameEngine(42);
+        engine.start(NAMES);
+        for (int t = 0; t < ticks; t++) {
+            if (engine.isGameOver()) {
+                engine.start(NAMES);
+            }
+            for (int b = 0; b < NAMES.length; b++) {
+                if (engine.getBirds().getY(b) > GameEngine.HEIGHT / 2) engine.jump(b);
+            }
+            engine.tick();
+        }
+    }
+
+    // Paints menu, game and game over frames in turn, at every quality level, into an image like the screen's;
+    // progress goes to the panel if there is one
+    static void warmUpPaint(GameRenderer renderer, Image surface, int frames, GamePanel panel) {
+        FrameState[] recorded = warmUpFrames();
+        Graphics2D g2d = (Graphics2D) surface.getGraphics();
+        for (int i = 0; i < frames; i++) {
+            renderer.setQuality(i / recorded.length % QualityGovernor.LEVELS); // So a step down later doesn't hitch
+            renderer.render(g2d, recorded[i % recorded.length], (i % 3 + 1) / 3f);
+            if (panel != null && i % 20 == 0) panel.setLoadProgress(0.25f + 0.75f * i / frames);
+        }
+        g2d.dispose();
+        renderer.setQuality(QualityGovernor.FULL);
+    }
+
+    // Accelerated like the window's back buffer where there is a screen
+    private static Image surface() {
+        if (GraphicsEnvironment.isHeadless()) {
+            return new BufferedImage(GameEngine.WIDTH, GameEngine.HEIGHT, BufferedImage.TYPE_INT_RGB);
+        }
+        return GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice().getDefaultConfiguration()
+                .createCompatibleVolatileImage(GameEngine.WIDTH, GameEngine.HEIGHT);
+    }
+
+    // One of everything the renderer draws: the menu, a round with pipes and particles, and its game over screen
+    private static FrameState[] warmUpFrames() {
+        GameEngine engine = new GameEngine(42);
+        engine.start(NAMES);
+        for (int i = 0; i < 4; i++) {
+            engine.addPipe(GameEngine.BIRD_X + 150 + i * 200, GameEngine.HEIGHT / 2 - 75);
+        }
+
+        FrameState menu = new FrameState();
+        engine.capture(menu);
+        menu.inMenu = true;
+        menu.p1Input = NAMES[0];
+        menu.p2Input = NAMES[1];
+
+        FrameState[] frames = new FrameState[32];
+        frames[0] = menu;
+        for (int f = 1; f < frames.length - 1; f++) {
+            for (int b = 0; b < NAMES.length; b++) {
+                if (engine.getBirds().getY(b) > GameEngine.HEIGHT / 2) engine.jump(b);
+            }
+            engine.tick();
+            frames[f] = new FrameState();
+            engine.capture(frames[f]);
+        }
+
+        while (!engine.isGameOver()) {
+            engine.tick(); // Nobody jumps any more
+        }
+        FrameState over = new FrameState();
+        engine.capture(over);
+        over.leaders = List.of(new Leaderboard.Entry(NAMES[0], 12, 1500, 42, 0),
+                new Leaderboard.Entry(NAMES[1], 7, 1100, 42, 0));
+        over.status = "Course: " + engine.getCourse();
+        frames[frames.length - 1] = over;
+        return frames;
+    }
+}
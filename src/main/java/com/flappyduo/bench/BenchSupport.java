@@ -0,0 +1,104 @@
+package com.flappyduo.bench;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Minimal timing and allocation helpers for the benchmark mains in this package.
+ * Allocation figures come from HotSpot's per-thread allocation counter.
+ */
+final class BenchSupport {
+
+    private static final com.sun.management.ThreadMXBean THREADS = threadBean();
+
+    private BenchSupport() {}
+
+    private static com.sun.management.ThreadMXBean threadBean() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean hotspot = (com.sun.management.ThreadMXBean) bean;
+            if (hotspot.isThreadAllocatedMemorySupported()) {
+                hotspot.setThreadAllocatedMemoryEnabled(true);
+                return hotspot;
+            }
+        }
+        return null;
+    }
+
+    // Bytes allocated so far by the calling thread, or -1 if the JVM can't tell
+    static long allocatedBytes() {
+        return THREADS != null ? THREADS.getThreadAllocatedBytes(Thread.currentThread().getId()) : -1;
+    }
+
+    static int intArg(String[] args, String name, int def) {
+        String v = arg(args, name);
+        return v != null ? Integer.parseInt(v) : def;
+    }
+
+    static int[] intListArg(String[] args, String name, int... def) {
+        String v = arg(args, name);
+        if (v == null) return def;
+        String[] parts = v.split(",");
+        int[] out = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            out[i] = Integer.parseInt(parts[i].trim());
+        }
+        return out;
+    }
+
+    static String arg(String[] args, String name) {
+        String prefix = "--" + name + "=";
+        for (String a : args) {
+            if (a.startsWith(prefix)) return a.substring(prefix.length());
+        }
+        return null;
+    }
+
+    /** One measured case: runs {@code ops} operations per call of {@link #run()}. */
+    interface Case {
+        // Untimed preparation before each measured batch
+        default void setup() {}
+
+        // Timed batch; returns the number of operations it performed
+        int run();
+    }
+
+    static final class Result {
+        final double nanosPerOp;
+        final double bytesPerOp;
+
+        Result(double nanosPerOp, double bytesPerOp) {
+            this.nanosPerOp = nanosPerOp;
+            this.bytesPerOp = bytesPerOp;
+        }
+
+        double opsPerSecond() {
+            return 1e9 / nanosPerOp;
+        }
+    }
+
+    // Warm up for warmupMillis, then measure batches for measureMillis
+    static Result measure(Case c, long warmupMillis, long measureMillis) {
+        long end = System.nanoTime() + warmupMillis * 1_000_000L;
+        while (System.nanoTime() < end) {
+            c.setup();
+            c.run();
+        }
+
+        long ops = 0;
+        long nanos = 0;
+        long bytes = 0;
+        end = System.nanoTime() + measureMillis * 1_000_000L;
+        while (System.nanoTime() < end) {
+            c.setup();
+            long a0 = allocatedBytes();
+            long t0 = System.nanoTime();
+            ops += c.run();
+            long t1 = System.nanoTime();
+            long a1 = allocatedBytes();
+            nanos += t1 - t0;
+            bytes += a1 - a0;
+        }
+        ops = Math.max(ops, 1);
+        return new Result((double) nanos / ops, (double) bytes / ops);
+    }
+}
@@ -0,0 +1,112 @@
+package com.flappyduo.bench;
+
+import com.flappyduo.Course;
+import com.flappyduo.GameEngine;
+import com.flappyduo.GameLoop;
+import com.flappyduo.LatencyHistogram;
+import com.flappyduo.Observation;
+import com.flappyduo.train.HeuristicController;
+
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Cost of course generation and what is left of it in the tick. First times
+ * generating whole courses. Then bots play rounds on a {@link GameLoop} at a
+ * fixed rate, well above the game's, and every tick is timed, split into
+ * ticks that spawn a pipe and ticks that don't. With the lookahead keeping up,
+ * no pipe is generated on the sim thread and spawning ticks only pay for
+ * adding the pipe. A last run goes flat out, faster than the background
+ * thread tops courses up, to show what the fallback costs.
+ *
+ * <pre>java com.flappyduo.bench.CourseBenchmark --pipes=1000 --hz=1000 --ticks=20000</pre>
+ */
+public class CourseBenchmark {
+
+    private static final String[] NAMES = { "Left", "Right" };
+
+    private final GameEngine engine = new GameEngine(42);
+    private final HeuristicController[] bots = { new HeuristicController(20), new HeuristicController(35) };
+    private final Observation observation = new Observation();
+    private final LatencyHistogram spawning = new LatencyHistogram();
+    private final LatencyHistogram other = new LatencyHistogram();
+    private final CountDownLatch done = new CountDownLatch(1);
+    private final int maxTicks;
+    private int ticks;
+    private int rounds = 1;
+    private int inline;
+
+    private CourseBenchmark(int maxTicks) {
+        this.maxTicks = maxTicks;
+        engine.start(NAMES);
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int pipes = BenchSupport.intArg(args, "pipes", 1000);
+        int hz = BenchSupport.intArg(args, "hz", 1000);
+        int ticks = BenchSupport.intArg(args, "ticks", 20_000);
+        int warmup = BenchSupport.intArg(args, "warmup-ms", 1000);
+        int measure = BenchSupport.intArg(args, "measure-ms", 2000);
+
+        BenchSupport.Result generate = BenchSupport.measure(new BenchSupport.Case() {
+            long seed;
+
+            @Override
+            public int run() {
+                Course.of(seed++).spawnTick(pipes - 1);
+                return pipes;
+            }
+        }, warmup, measure);
+        System.out.printf("generate: %.1f ns/pipe, %.1f B/pipe%n", generate.nanosPerOp, generate.bytesPerOp);
+
+        new CourseBenchmark(ticks * 10).runFlatOut(); // Warm-up
+        CourseBenchmark flatOut = new CourseBenchmark(ticks * 10).runFlatOut();
+
+        CourseBenchmark paced = new CourseBenchmark(ticks);
+        GameLoop loop = new GameLoop(hz, tickTime -> paced.step(), () -> {});
+        loop.start();
+        paced.done.await();
+        loop.stop();
+
+        paced.report("paced at " + hz + " Hz");
+        flatOut.report("flat out");
+    }
+
+    private CourseBenchmark runFlatOut() {
+        while (ticks < maxTicks) {
+            step();
+        }
+        return this;
+    }
+
+    // Bots play, rounds restart as soon as they end, every tick is timed
+    private void step() {
+        if (ticks >= maxTicks) return;
+        if (engine.isGameOver()) {
+            inline += engine.getCourse().getGeneratedInline();
+            engine.start(NAMES);
+            rounds++;
+        }
+        for (int i = 0; i < NAMES.length; i++) {
+            engine.observe(i, observation);
+            if (bots[i].shouldJump(observation)) engine.jump(i);
+        }
+        int next = engine.getTicks() + 1;
+        boolean spawns = next % engine.getCourse().spawnIntervalAt(next) == 0;
+        long start = System.nanoTime();
+        engine.tick();
+        long nanos = System.nanoTime() - start;
+        (spawns ? spawning : other).record(nanos);
+        if (++ticks == maxTicks) {
+            inline += engine.getCourse().getGeneratedInline();
+            done.countDown();
+        }
+    }
+
+    private void report(String label) {
+        System.out.printf("%s: ticks=%d rounds=%d, pipes generated on the sim thread: %d%n", label, ticks, rounds, inline);
+        System.out.printf("  spawning ticks: n=%-8d mean %6.0f ns  p99 %6d ns%n",
+                spawning.getCount(), spawning.getMean(), spawning.percentile(0.99));
+        System.out.printf("  other ticks:    n=%-8d mean %6.0f ns  p99 %6d ns%n",
+                other.getCount(), other.getMean(), other.percentile(0.99));
+    }
+}
@@ -0,0 +1,166 @@
+package com.flappyduo.bench;
+
+import com.flappyduo.Collisions;
+import com.flappyduo.FastRandom;
+import com.flappyduo.Flock;
+import com.flappyduo.GameEngine;
+import com.flappyduo.Pipe;
+import com.flappyduo.ecs.Archetype;
+import com.flappyduo.ecs.ChunkSystem;
+import com.flappyduo.ecs.CommandBuffer;
+import com.flappyduo.ecs.Component;
+import com.flappyduo.ecs.Query;
+import com.flappyduo.ecs.World;
+
+/**
+ * Entity churn at scale on the {@link World} store. A steady population of
+ * falling debris and scrolling obstacles runs through physics, scroll,
+ * collision (obstacles against the birds' column), lifetime and render
+ * systems, the last copying every position out the way a frame capture does.
+ * Lifetimes are staggered, so every tick about {@code entities / lifetime}
+ * of them expire and as many are spawned through a command buffer: the
+ * numbers include creating and destroying, not just iterating.
+ *
+ * <pre>java com.flappyduo.bench.EntityBenchmark --entities=1000,10000,50000 --lifetime=60</pre>
+ */
+public class EntityBenchmark {
+
+    private static final Component X = Component.ofFloat("x");
+    private static final Component Y = Component.ofFloat("y");
+    private static final Component VX = Component.ofFloat("vx");
+    private static final Component VY = Component.ofFloat("vy");
+    private static final Component SCROLL = Component.ofInt("scroll");
+    private static final Component LIFE = Component.ofInt("life");
+    private static final Component HIT = Component.ofInt("hit");
+
+    private static final int BATCH_TICKS = 100;
+    private static final float GRAVITY = 0.5f;
+    private static final int OBSTACLE_HEIGHT = 40;
+    private static final int OBSTACLE_EVERY = 4; // One spawn in four is an obstacle, the rest debris
+
+    private final World world = new World();
+    private final Archetype debris = world.archetype(X, Y, VX, VY, LIFE);
+    private final Archetype obstacle = world.archetype(X, Y, SCROLL, LIFE, HIT);
+    private final Query moving = world.query(X, Y, VX, VY);
+    private final Query scrolling = world.query(X, SCROLL);
+    private final Query colliding = world.query(X, Y, HIT);
+    private final Query aging = world.query(LIFE);
+    private final Query drawable = world.query(X, Y);
+    private final CommandBuffer commands = new CommandBuffer();
+    private final FastRandom random = new FastRandom(42);
+    private final int lifetime;
+    private final int spawnsPerTick;
+    private final int birdY = GameEngine.HEIGHT / 2;
+    private float[] drawX = new float[0];
+    private float[] drawY = new float[0];
+    private int drawn;
+    private int spawned;
+    private long hits;
+
+    private final ChunkSystem physics = chunk -> {
+        float[] x = chunk.floats(X), y = chunk.floats(Y), vx = chunk.floats(VX), vy = chunk.floats(VY);
+        for (int i = 0, n = chunk.size(); i < n; i++) {
+            vy[i] += GRAVITY;
+            x[i] += vx[i];
+            y[i] += vy[i];
+        }
+    };
+
+    private final ChunkSystem scroll = chunk -> {
+        float[] x = chunk.floats(X);
+        int[] speed = chunk.ints(SCROLL);
+        for (int i = 0, n = chunk.size(); i < n; i++) {
+            x[i] -= speed[i];
+        }
+    };
+
+    private final ChunkSystem collision = chunk -> {
+        float[] x = chunk.floats(X), y = chunk.floats(Y);
+        int[] hit = chunk.ints(HIT);
+        for (int i = 0, n = chunk.size(); i < n; i++) {
+            if (hit[i] == 0 && Collisions.intersects(GameEngine.BIRD_X, birdY, Flock.SIZE, Flock.SIZE,
+                    (int) x[i], (int) y[i], Pipe.WIDTH, OBSTACLE_HEIGHT)) {
+                hit[i] = 1;
+                hits++;
+            }
+        }
+    };
+
+    private final ChunkSystem expiry = chunk -> {
+        int[] life = chunk.ints(LIFE);
+        for (int i = 0, n = chunk.size(); i < n; i++) {
+            if (--life[i] <= 0) commands.destroy(chunk.entity(i));
+        }
+    };
+
+    private final ChunkSystem render = chunk -> {
+        int n = chunk.size();
+        System.arraycopy(chunk.floats(X), 0, drawX, drawn, n);
+        System.arraycopy(chunk.floats(Y), 0, drawY, drawn, n);
+        drawn += n;
+    };
+
+    private EntityBenchmark(int entities, int lifetime) {
+        this.lifetime = lifetime;
+        this.spawnsPerTick = Math.max(1, entities / lifetime);
+        for (int i = 0; i < entities; i++) {
+            spawn(1 + i % lifetime); // Staggered, so the same number expires every tick
+        }
+        world.apply(commands);
+    }
+
+    public static void main(String[] args) {
+        int[] entityCounts = BenchSupport.intListArg(args, "entities", 1000, 10_000, 50_000);
+        int lifetime = BenchSupport.intArg(args, "lifetime", 60);
+        int warmup = BenchSupport.intArg(args, "warmup-ms", 1000);
+        int measure = BenchSupport.intArg(args, "measure-ms", 2000);
+
+        System.out.printf("%-9s %12s %12s %12s %10s%n", "entities", "churn/tick", "ns/tick", "ns/entity", "B/tick");
+        for (int entities : entityCounts) {
+            EntityBenchmark bench = new EntityBenchmark(entities, lifetime);
+            BenchSupport.Result result = BenchSupport.measure(() -> {
+                for (int t = 0; t < BATCH_TICKS; t++) {
+                    bench.tick();
+                }
+                return BATCH_TICKS;
+            }, warmup, measure);
+            System.out.printf("%-9d %12d %,12.0f %12.2f %10.1f%n", bench.world.size(), bench.spawnsPerTick,
+                    result.nanosPerOp, result.nanosPerOp / bench.world.size(), result.bytesPerOp);
+        }
+    }
+
+    private void tick() {
+        for (int i = 0; i < spawnsPerTick; i++) {
+            spawn(lifetime);
+        }
+        moving.forEach(physics);
+        scrolling.forEach(scroll);
+        colliding.forEach(collision);
+        aging.forEach(expiry);
+        world.apply(commands); // Removes this tick's expired entities and adds its spawns
+
+        if (drawX.length < world.size()) {
+            drawX = new float[world.size() * 2];
+            drawY = new float[world.size() * 2];
+        }
+        drawn = 0;
+        drawable.forEach(render);
+    }
+
+    private void spawn(int life) {
+        if (spawned++ % OBSTACLE_EVERY == 0) {
+            int e = commands.spawn(obstacle);
+            commands.setFloat(e, X, GameEngine.WIDTH);
+            commands.setFloat(e, Y, random.nextInt(GameEngine.HEIGHT - OBSTACLE_HEIGHT));
+            commands.setInt(e, SCROLL, 5);
+            commands.setInt(e, LIFE, life);
+        } else {
+            int e = commands.spawn(debris);
+            commands.setFloat(e, X, random.nextInt(GameEngine.WIDTH));
+            commands.setFloat(e, Y, 0);
+            commands.setFloat(e, VX, random.nextFloat() * 4 - 2);
+            commands.setFloat(e, VY, random.nextFloat() * 2);
+            commands.setInt(e, LIFE, life);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.flappyduo.bench;
+
+import com.flappyduo.Leaderboard;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Append throughput, reopen time and crash recovery of {@link Leaderboard}.
+ * Appends a batch of results to a fresh file and reopens it. Then it corrupts
+ * the last record the way a torn write would and checks that reopening drops
+ * exactly that record. Exits with code 1 if anything doesn't match.
+ *
+ * <pre>java com.flappyduo.bench.LeaderboardCheck --records=1000000</pre>
+ */
+public class LeaderboardCheck {
+
+    public static void main(String[] args) throws IOException {
+        int records = BenchSupport.intArg(args, "records", 1_000_000);
+        String file = BenchSupport.arg(args, "file");
+        Path path = file != null ? Path.of(file) : Files.createTempFile("leaderboard", ".dat");
+        Files.deleteIfExists(path);
+
+        try {
+            long start = System.nanoTime();
+            List<Leaderboard.Entry> top;
+            try (Leaderboard board = Leaderboard.open(path)) {
+                for (int i = 0; i < records; i++) {
+                    board.add("bot-" + (i % 100), (int) ((i * 2654435761L) % 10_000), i, i);
+                }
+                top = board.top();
+            }
+            double appendSeconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("append: %d records in %.2f s, %.0f records/s, file %.1f MB%n",
+                    records, appendSeconds, records / appendSeconds, Files.size(path) / 1e6);
+
+            start = System.nanoTime();
+            int size;
+            List<Leaderboard.Entry> reopenedTop;
+            try (Leaderboard board = Leaderboard.open(path)) {
+                size = board.size();
+                reopenedTop = board.top();
+            }
+            System.out.printf("reopen: %d records in %.1f ms, best %s%n",
+                    size, (System.nanoTime() - start) / 1e6, reopenedTop.isEmpty() ? "-" : reopenedTop.get(0));
+            if (size != records || !sameScores(top, reopenedTop)) fail("reopened board differs");
+
+            // Flip a byte in the last record, as a write torn by a crash would leave it
+            try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                long at = 64 + (long) (records - 1) * 64 + 10;
+                ByteBuffer b = ByteBuffer.allocate(1);
+                ch.read(b, at);
+                b.put(0, (byte) ~b.get(0)).rewind();
+                ch.write(b, at);
+            }
+            try (Leaderboard board = Leaderboard.open(path)) {
+                System.out.printf("torn last record: reopened with %d records%n", board.size());
+                if (board.size() != records - 1) fail("torn record was not dropped");
+            }
+            System.out.println("OK");
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    private static boolean sameScores(List<Leaderboard.Entry> a, List<Leaderboard.Entry> b) {
+        if (a.size() != b.size()) return false;
+        for (int i = 0; i < a.size(); i++) {
+            if (a.get(i).getScore() != b.get(i).getScore() || !a.get(i).getName().equals(b.get(i).getName())) return false;
+        }
+        return true;
+    }
+
+    private static void fail(String message) {
+        System.out.println("FAIL: " + message);
+        System.exit(1);
+    }
+}
@@ -0,0 +1,100 @@
+package com.flappyduo.bench;
+
+import com.flappyduo.GameEngine;
+import com.flappyduo.GameLoop;
+import com.flappyduo.LockstepLink;
+import com.flappyduo.Observation;
+import com.flappyduo.train.HeuristicController;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Plays a networked lockstep round between two processes with bots on both
+ * sides, then prints round-trip time, stalls, traffic and the final state hash.
+ * Both processes must print the same hash.
+ *
+ * <pre>
+ * java com.flappyduo.bench.LockstepCheck --host --ticks=3000
+ * java com.flappyduo.bench.LockstepCheck --join=localhost:24680
+ * </pre>
+ */
+public class LockstepCheck {
+
+    // Keep answering after game over so the peer gets our last inputs and acks
+    private static final int LINGER_TICKS = 50;
+
+    private final LockstepLink link;
+    private final GameEngine engine;
+    private final int maxTicks;
+    private final HeuristicController bot;
+    private final Observation observation = new Observation();
+    private final CountDownLatch done = new CountDownLatch(1);
+    private boolean started;
+    private int linger;
+
+    private LockstepCheck(LockstepLink link, int maxTicks) {
+        this.link = link;
+        this.maxTicks = maxTicks;
+        this.engine = GameEngine.headless(0);
+        this.bot = new HeuristicController(link.isHost() ? 20 : 35); // Different bots, so the birds split up
+    }
+
+    public static void main(String[] args) throws Exception {
+        int ticks = BenchSupport.intArg(args, "ticks", 3000);
+        int hz = BenchSupport.intArg(args, "hz", GameLoop.DEFAULT_HZ);
+        String join = BenchSupport.arg(args, "join");
+
+        LockstepLink link;
+        if (join != null) {
+            int colon = join.lastIndexOf(':');
+            String host = colon >= 0 ? join.substring(0, colon) : join;
+            int port = colon >= 0 ? Integer.parseInt(join.substring(colon + 1)) : LockstepLink.DEFAULT_PORT;
+            link = LockstepLink.join(new InetSocketAddress(host, port), "Joiner");
+        } else {
+            int port = BenchSupport.intArg(args, "port", LockstepLink.DEFAULT_PORT);
+            int delay = BenchSupport.intArg(args, "delay", LockstepLink.DEFAULT_DELAY);
+            link = LockstepLink.host(port, "Host", BenchSupport.intArg(args, "seed", 42), delay);
+            System.out.println("Waiting on port " + port);
+        }
+
+        LockstepCheck check = new LockstepCheck(link, ticks);
+        GameLoop loop = new GameLoop(hz, tickTime -> check.step(), () -> {});
+        long start = System.nanoTime();
+        loop.start();
+        check.done.await();
+        loop.stop();
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("ticks=%d  scores=%d/%d  hash=%016x%n",
+                check.engine.getTicks(), check.engine.getScore(0), check.engine.getScore(1), check.engine.stateHash());
+        System.out.printf("rtt=%.2f ms  stalls=%d  delay=%d ticks  sent=%d packets, %.0f bytes/s%n",
+                link.getRttMillis(), link.getStalls(), link.getDelay(), link.getPacketsSent(),
+                link.getBytesSent() / seconds);
+        link.close();
+    }
+
+    private void step() {
+        try {
+            link.receive();
+            if (!started) {
+                if (link.isConnected()) {
+                    engine.start(link.getSeed(), link.getNames());
+                    started = true;
+                }
+            } else if (!engine.isGameOver() && engine.getTicks() < maxTicks) {
+                if (link.ready(engine)) {
+                    engine.observe(link.getLocalBird(), observation);
+                    link.advance(engine, bot.shouldJump(observation));
+                }
+            } else if (++linger > LINGER_TICKS || link.isPeerLost()) {
+                done.countDown();
+            }
+            link.send();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.flappyduo.bench;
+
+import com.flappyduo.FrameState;
+import com.flappyduo.GameEngine;
+import com.flappyduo.GameRenderer;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+/**
+ * Allocation regression check for the paint path. Renders recorded frames into
+ * an off-screen image and fails (exit code 1) if painting allocates more than
+ * the allowed bytes per frame once warmed up. The default limit leaves room for
+ * what Java2D allocates internally to lay out the HUD text.
+ *
+ * <pre>java -Djava.awt.headless=true com.flappyduo.bench.PaintAllocationCheck --frames=2000 --max-bytes-per-frame=256</pre>
+ */
+public class PaintAllocationCheck {
+
+    private static final int RECORDED_FRAMES = 120;
+
+    public static void main(String[] args) {
+        int frames = BenchSupport.intArg(args, "frames", 2000);
+        int maxBytes = BenchSupport.intArg(args, "max-bytes-per-frame", 256);
+        int birds = BenchSupport.intArg(args, "birds", 2);
+
+        FrameState[] recorded = record(birds);
+        GameRenderer renderer = new GameRenderer();
+        BufferedImage image = new BufferedImage(GameEngine.WIDTH, GameEngine.HEIGHT, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2d = image.createGraphics();
+
+        // Warm up caches, glyph strikes and the JIT
+        for (int i = 0; i < frames; i++) {
+            renderer.render(g2d, recorded[i % recorded.length], alpha(i));
+        }
+
+        long before = BenchSupport.allocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < frames; i++) {
+            renderer.render(g2d, recorded[i % recorded.length], alpha(i));
+        }
+        long nanos = System.nanoTime() - start;
+        long bytes = BenchSupport.allocatedBytes() - before;
+        g2d.dispose();
+
+        if (before < 0) {
+            System.out.println("Thread allocation counters unavailable on this JVM; nothing checked");
+            return;
+        }
+
+        double perFrame = (double) bytes / frames;
+        System.out.printf("frames=%d  %.1f us/frame  %.1f bytes/frame (limit %d)%n",
+                frames, nanos / 1e3 / frames, perFrame, maxBytes);
+        if (perFrame > maxBytes) {
+            System.out.println("FAIL: paint path allocates");
+            System.exit(1);
+        }
+        System.out.println("OK");
+    }
+
+    // Several display frames per tick, as on a 144 Hz screen
+    private static float alpha(int frame) {
+        return (frame % 3 + 1) / 3f;
+    }
+
+    // Frames from a short round with birds flying through a row of pipes and particles in the air
+    private static FrameState[] record(int birds) {
+        GameEngine engine = new GameEngine(42);
+        String[] names = new String[birds];
+        for (int i = 0; i < birds; i++) {
+            names[i] = "Player " + (i + 1);
+        }
+        engine.start(names);
+        for (int i = 0; i < 6; i++) {
+            engine.addPipe(GameEngine.BIRD_X + 100 + i * 200, GameEngine.HEIGHT / 2 - 75);
+        }
+
+        FrameState[] out = new FrameState[RECORDED_FRAMES];
+        for (int f = 0; f < out.length; f++) {
+            for (int b = 0; b < birds; b++) {
+                if (engine.getBirds().getY(b) > GameEngine.HEIGHT / 2) engine.jump(b);
+            }
+            engine.tick();
+            out[f] = new FrameState();
+            engine.capture(out[f]);
+        }
+        return out;
+    }
+}
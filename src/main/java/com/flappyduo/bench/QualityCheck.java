@@ -0,0 +1,132 @@
+package com.flappyduo.bench;
+
+import com.flappyduo.FrameState;
+import com.flappyduo.GameEngine;
+import com.flappyduo.GameRenderer;
+import com.flappyduo.QualityGovernor;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.Random;
+
+/**
+ * What each quality level saves, and how {@link QualityGovernor} moves between
+ * them. First paints recorded frames full of pipes and particles at every
+ * level and prints the cost per frame. Then feeds the governor simulated paint
+ * times through four phases: plenty of headroom, a load only the lower levels
+ * can take, a load that sits on the edge between two levels, and headroom
+ * again. The governor must get under budget during the heavy phase, change
+ * level at most twice on the edge, and be back at full quality at the end,
+ * or the check exits with code 1.
+ *
+ * <pre>java -Djava.awt.headless=true com.flappyduo.bench.QualityCheck --particles=4000 --frames=600</pre>
+ */
+public class QualityCheck {
+
+    private static final int RECORDED_FRAMES = 60;
+    private static final double[] LEVEL_COST = { 1.0, 0.9, 0.9, 0.5, 0.4 }; // Share of full-quality paint time
+    private static final int MAX_EDGE_CHANGES = 2; // One try at the level above, then it stays put
+
+    public static void main(String[] args) {
+        int particles = BenchSupport.intArg(args, "particles", 4000);
+        int frames = BenchSupport.intArg(args, "frames", 600);
+
+        FrameState[] recorded = record(particles);
+        GameRenderer renderer = new GameRenderer();
+        BufferedImage image = new BufferedImage(GameEngine.WIDTH, GameEngine.HEIGHT, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2d = image.createGraphics();
+        for (int level = 0; level < QualityGovernor.LEVELS; level++) {
+            renderer.setQuality(level);
+            paint(renderer, g2d, recorded, frames); // Every path warmed up before any is timed
+        }
+        for (int level = 0; level < QualityGovernor.LEVELS; level++) {
+            renderer.setQuality(level);
+            long start = System.nanoTime();
+            paint(renderer, g2d, recorded, frames);
+            double micros = (System.nanoTime() - start) / 1e3 / frames;
+            System.out.printf("level %d: %8.1f us/frame%n", level, micros);
+        }
+        g2d.dispose();
+
+        boolean ok = simulate();
+        if (!ok) {
+            System.exit(1);
+        }
+        System.out.println("OK");
+    }
+
+    private static void paint(GameRenderer renderer, Graphics2D g2d, FrameState[] recorded, int frames) {
+        for (int i = 0; i < frames; i++) {
+            renderer.render(g2d, recorded[i % recorded.length], (i % 3 + 1) / 3f);
+        }
+    }
+
+    // Paint time is the load times the level's share of the budget, with a little noise
+    private static boolean simulate() {
+        QualityGovernor governor = new QualityGovernor();
+        Random random = new Random(42);
+        long budget = QualityGovernor.DEFAULT_BUDGET_NANOS;
+        double[] loads = { 0.5, 1.6, 1.12, 0.5 };
+        int[] lengths = { 600, 1200, 3000, 3000 };
+        String[] names = { "light", "heavy", "edge", "light again" };
+        boolean ok = true;
+
+        for (int phase = 0; phase < loads.length; phase++) {
+            int changes = 0;
+            int overBudget = 0;
+            int lastLevel = governor.getLevel();
+            StringBuilder levels = new StringBuilder().append(lastLevel);
+            for (int f = 0; f < lengths[phase]; f++) {
+                int level = governor.getLevel();
+                if (level != lastLevel) {
+                    changes++;
+                    levels.append(' ').append(level);
+                    lastLevel = level;
+                }
+                long nanos = (long) (budget * loads[phase] * LEVEL_COST[level] * (1 + 0.03 * random.nextGaussian()));
+                if (f >= lengths[phase] / 2 && nanos > budget) overBudget++;
+                governor.record(nanos);
+            }
+            System.out.printf("%-12s load %.2f: levels %s, %d changes, %d frames over budget in the second half%n",
+                    names[phase], loads[phase], levels, changes, overBudget);
+
+            if (phase == 1 && overBudget > lengths[phase] / 2 / 20) {
+                System.out.println("FAIL: still over budget under heavy load");
+                ok = false;
+            }
+            if (phase == 2 && changes > MAX_EDGE_CHANGES) {
+                System.out.println("FAIL: quality flaps on the edge");
+                ok = false;
+            }
+        }
+        if (governor.getLevel() != QualityGovernor.FULL) {
+            System.out.println("FAIL: quality didn't recover, level " + governor.getLevel());
+            ok = false;
+        }
+        return ok;
+    }
+
+    // A round with a full row of pipes and a cloud of particles that is kept topped up
+    private static FrameState[] record(int particles) {
+        GameEngine engine = new GameEngine(42);
+        engine.start("Left", "Right");
+        for (int i = 0; i < 6; i++) {
+            engine.addPipe(GameEngine.BIRD_X + 100 + i * 200, GameEngine.HEIGHT / 2 - 75);
+        }
+
+        FrameState[] out = new FrameState[RECORDED_FRAMES];
+        for (int f = 0; f < out.length; f++) {
+            for (int b = 0; b < 2; b++) {
+                if (engine.getBirds().getY(b) > GameEngine.HEIGHT / 2) engine.jump(b);
+            }
+            if (engine.getParticleCount() < particles) {
+                engine.spawnParticles(GameEngine.WIDTH / 2, GameEngine.HEIGHT / 2, f % 3,
+                        particles - engine.getParticleCount());
+            }
+            engine.tick();
+            out[f] = new FrameState();
+            engine.capture(out[f]);
+        }
+        return out;
+    }
+}
@@ -0,0 +1,144 @@
+package com.flappyduo.bench;
+
+import com.flappyduo.GameEngine;
+import com.flappyduo.Observation;
+import com.flappyduo.Replay;
+import com.flappyduo.ReplayRecorder;
+import com.flappyduo.ReplayVerifier;
+import com.flappyduo.train.HeuristicController;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Throughput and correctness of {@link ReplayVerifier}. Bots play rounds on
+ * different seeds and their replays are encoded as submissions; some are then
+ * edited the way a cheater would: a higher score, a different length, or the
+ * same inputs moved to another seed. All of them are verified in parallel,
+ * and the check prints replays and ticks per second. Every untouched replay
+ * must be accepted and every edited one rejected, or it exits with code 1.
+ * {@code --write} saves the submissions as files for the command-line
+ * verifier.
+ *
+ * <pre>java com.flappyduo.bench.ReplayVerifyCheck --replays=5000 --threads=8 --tampered=10</pre>
+ */
+public class ReplayVerifyCheck {
+
+    private static final String[] NAMES = { "Left", "Right" };
+    private static final int TICKS_OFFSET = 16; // Header: magic, version, seed, then ticks
+    private static final int SEED_OFFSET = 8;
+    private static final int FIRST_SCORE_OFFSET = 40 + 4 + NAMES[0].getBytes(StandardCharsets.UTF_8).length;
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int count = BenchSupport.intArg(args, "replays", 5000);
+        int threads = BenchSupport.intArg(args, "threads", Runtime.getRuntime().availableProcessors());
+        int tamperedPercent = BenchSupport.intArg(args, "tampered", 10);
+        String write = BenchSupport.arg(args, "write");
+
+        long recordStart = System.nanoTime();
+        List<byte[]> submissions = new ArrayList<>(count);
+        boolean[] tampered = new boolean[count];
+        long ticks = 0;
+        for (int i = 0; i < count; i++) {
+            byte[] bytes = record(i);
+            ticks += ByteBuffer.wrap(bytes).getInt(TICKS_OFFSET);
+            if (i % 100 < tamperedPercent) {
+                tamper(bytes, i);
+                tampered[i] = true;
+            }
+            submissions.add(bytes);
+        }
+        System.out.printf("recorded %d rounds, %d ticks, in %.1f s%n", count, ticks, (System.nanoTime() - recordStart) / 1e9);
+
+        if (write != null) {
+            Path dir = Files.createDirectories(Path.of(write));
+            for (int i = 0; i < count; i++) {
+                Files.write(dir.resolve(String.format("round-%05d.fdr", i)), submissions.get(i));
+            }
+            System.out.println("wrote " + count + " replays to " + dir);
+        }
+
+        // Each result is checked against what was done to its replay as it streams in
+        AtomicInteger wrong = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        long start = System.nanoTime();
+        try (ReplayVerifier verifier = new ReplayVerifier(threads, result -> {
+            int i = Integer.parseInt(result.getId());
+            if (result.getError() != null) {
+                wrong.incrementAndGet();
+                System.out.println("WRONG: " + result);
+                return;
+            }
+            if (!result.isAccepted()) rejected.incrementAndGet();
+            if (result.isAccepted() == tampered[i]) {
+                wrong.incrementAndGet();
+                System.out.println("WRONG: " + result);
+            }
+        })) {
+            for (int i = 0; i < count; i++) {
+                Replay replay;
+                try {
+                    replay = Replay.decode(ByteBuffer.wrap(submissions.get(i)));
+                } catch (IOException e) {
+                    // Rejected before it reaches the verifier, as a claimed length the inputs don't cover is
+                    rejected.incrementAndGet();
+                    if (!tampered[i]) {
+                        wrong.incrementAndGet();
+                        System.out.println("WRONG: " + i + " doesn't decode: " + e.getMessage());
+                    }
+                    continue;
+                }
+                verifier.submit(Integer.toString(i), replay);
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("verified %d replays on %d threads in %.2f s: %.0f replays/s, %.1f M ticks/s, %d rejected%n",
+                count, threads, seconds, count / seconds, ticks / seconds / 1e6, rejected.get());
+        if (wrong.get() > 0) {
+            System.out.println("FAIL: " + wrong.get() + " replays judged wrongly");
+            System.exit(1);
+        }
+        System.out.println("OK");
+    }
+
+    // One bot round on its own seed, encoded as it would be uploaded
+    private static byte[] record(int round) {
+        GameEngine engine = GameEngine.headless(round);
+        ReplayRecorder recorder = new ReplayRecorder();
+        engine.setRecorder(recorder);
+        HeuristicController[] bots = { new HeuristicController(20 + round % 7), new HeuristicController(35 - round % 5) };
+        Observation observation = new Observation();
+        engine.start(round, NAMES);
+        while (!engine.isGameOver()) {
+            for (int b = 0; b < NAMES.length; b++) {
+                engine.observe(b, observation);
+                if (bots[b].shouldJump(observation)) engine.jump(b);
+            }
+            engine.tick();
+        }
+        return recorder.finish(engine).encode();
+    }
+
+    // Edits the file in place the way a cheater would, in one of three ways
+    private static void tamper(byte[] bytes, int round) {
+        ByteBuffer buf = ByteBuffer.wrap(bytes);
+        switch (round % 3) {
+            case 0:
+                buf.putInt(FIRST_SCORE_OFFSET, buf.getInt(FIRST_SCORE_OFFSET) + 1);
+                break;
+            case 1:
+                buf.putInt(TICKS_OFFSET, buf.getInt(TICKS_OFFSET) + 250); // Claims to have lasted longer
+                break;
+            default:
+                buf.putLong(SEED_OFFSET, buf.getLong(SEED_OFFSET) ^ 0x5DEECE66DL); // Same inputs, easier course
+                break;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.flappyduo.bench;
+
+import com.flappyduo.GameEngine;
+import com.flappyduo.GameSnapshot;
+import com.flappyduo.Observation;
+import com.flappyduo.SnapshotRing;
+import com.flappyduo.train.HeuristicController;
+
+/**
+ * Cost of rollback: saving and restoring one snapshot, and a full rollback that
+ * restores the state from {@code depth} ticks ago and re-simulates back to the
+ * present. The deepest case the default ring supports is capacity - 1 ticks.
+ * Each rollback must land on the same state hash it started from.
+ *
+ * <pre>java com.flappyduo.bench.RollbackBenchmark --birds=2,100 --depths=1,8,15</pre>
+ */
+public class RollbackBenchmark {
+
+    // Ticks played before measuring, so there are pipes, particles and scores to copy
+    private static final int PREPARE_TICKS = 600;
+
+    public static void main(String[] args) {
+        int[] birdCounts = BenchSupport.intListArg(args, "birds", 2, 100);
+        int[] depths = BenchSupport.intListArg(args, "depths", 1, 8, SnapshotRing.DEFAULT_CAPACITY - 1);
+        int warmup = BenchSupport.intArg(args, "warmup-ms", 1000);
+        int measure = BenchSupport.intArg(args, "measure-ms", 2000);
+
+        System.out.printf("%-6s %-6s %12s %12s %14s %10s%n", "birds", "depth", "save ns", "restore ns", "rollback us", "B/op");
+        for (int birds : birdCounts) {
+            Scenario scenario = new Scenario(birds);
+            BenchSupport.Result save = BenchSupport.measure(scenario.save(), warmup / 2, measure / 2);
+            BenchSupport.Result restore = BenchSupport.measure(scenario.restore(), warmup / 2, measure / 2);
+            for (int depth : depths) {
+                BenchSupport.Result rollback = BenchSupport.measure(scenario.rollback(depth), warmup, measure);
+                System.out.printf("%-6d %-6d %,12.1f %,12.1f %,14.2f %10.1f%n", birds, depth,
+                        save.nanosPerOp, restore.nanosPerOp, rollback.nanosPerOp / 1e3,
+                        Math.max(rollback.bytesPerOp, Math.max(save.bytesPerOp, restore.bytesPerOp)));
+            }
+        }
+    }
+
+    // A round played by bots, with every tick's inputs kept so ticks can be re-run
+    static final class Scenario {
+        final GameEngine engine = new GameEngine(42);
+        final SnapshotRing ring = new SnapshotRing();
+        final GameSnapshot scratch = new GameSnapshot();
+        final int birds;
+        final boolean[] jumps; // [tick * birds + bird]
+        final int now;
+        final long nowHash;
+
+        Scenario(int birds) {
+            this.birds = birds;
+            String[] names = new String[birds];
+            for (int i = 0; i < birds; i++) {
+                names[i] = "Bot " + i;
+            }
+            engine.start(names);
+
+            jumps = new boolean[PREPARE_TICKS * birds];
+            HeuristicController bot = new HeuristicController(20);
+            Observation observation = new Observation();
+            ring.save(engine);
+            for (int t = 0; t < PREPARE_TICKS; t++) {
+                for (int b = 0; b < birds; b++) {
+                    if (engine.getBirds().isDead(b)) continue;
+                    engine.observe(b, observation);
+                    jumps[t * birds + b] = bot.shouldJump(observation);
+                }
+                step(t);
+            }
+            if (engine.isGameOver()) throw new IllegalStateException("Bots died while preparing; rollback needs a live round");
+            now = engine.getTicks();
+            nowHash = engine.stateHash();
+            engine.save(scratch);
+        }
+
+        // One tick with its recorded inputs, saved like a live game would
+        void step(int tick) {
+            for (int b = 0; b < birds; b++) {
+                if (jumps[tick * birds + b]) engine.jump(b);
+            }
+            engine.tick();
+            ring.save(engine);
+        }
+
+        BenchSupport.Case save() {
+            return () -> {
+                for (int i = 0; i < 1000; i++) {
+                    engine.save(scratch);
+                }
+                return 1000;
+            };
+        }
+
+        BenchSupport.Case restore() {
+            return () -> {
+                for (int i = 0; i < 1000; i++) {
+                    engine.restore(scratch);
+                }
+                return 1000;
+            };
+        }
+
+        BenchSupport.Case rollback(int depth) {
+            return () -> {
+                if (!ring.restore(engine, now - depth)) throw new IllegalStateException("Tick " + (now - depth) + " not in the ring");
+                for (int t = now - depth; t < now; t++) {
+                    step(t);
+                }
+                if (engine.stateHash() != nowHash) throw new IllegalStateException("Rollback of " + depth + " ticks diverged");
+                return 1;
+            };
+        }
+    }
+}
@@ -0,0 +1,297 @@
+package com.flappyduo.bench;
+
+import com.flappyduo.FrameState;
+import com.flappyduo.GameEngine;
+import com.flappyduo.GameLoop;
+import com.flappyduo.GameRenderer;
+import com.flappyduo.LatencyHistogram;
+import com.flappyduo.Observation;
+import com.flappyduo.Pipe;
+import com.flappyduo.SpectatorClient;
+import com.flappyduo.SpectatorServer;
+import com.flappyduo.train.HeuristicController;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Broadcasts bot rounds to a crowd of local spectators and checks that every
+ * one of them ends up with exactly the engine's state. Prints what publishing
+ * costs the sim thread per tick, the traffic, the selector thread's CPU time
+ * and how many messages were dropped for the stalled clients, which connect
+ * but never read. Renders the first spectator's last frame with the game's
+ * renderer; {@code --png} saves it.
+ *
+ * <p>Then streams a round with {@code --stall-birds} birds, fast enough that
+ * stalled clients pile up more than {@link SpectatorServer#MAX_QUEUED_BYTES},
+ * to a second server on the next port. Their messages must be dropped while
+ * the one spectator that keeps reading still ends up with the engine's state.
+ * Exits with code 1 on a mismatch, if publishing allocates once warmed up, or
+ * if nothing was dropped in the stall round.
+ *
+ * <pre>java -Djava.awt.headless=true com.flappyduo.bench.SpectatorCheck --clients=200 --ticks=3000 --png=spectator.png</pre>
+ */
+public class SpectatorCheck {
+
+    private static final String[] NAMES = { "Left", "Right" };
+    private static final int WARMUP_TICKS = 500; // Before this, publish may still be growing its buffers
+
+    private final GameEngine engine = new GameEngine(42);
+    private final HeuristicController[] bots = { new HeuristicController(20), new HeuristicController(35) };
+    private final Observation observation = new Observation();
+    private final SpectatorServer server;
+    private final LatencyHistogram publish = new LatencyHistogram();
+    private long allocated; // Bytes publish allocated after warm-up
+    private final int maxTicks;
+    private volatile boolean done;
+    private int ticks;
+    private int rounds = 1;
+
+    private SpectatorCheck(SpectatorServer server, int maxTicks) {
+        this.server = server;
+        this.maxTicks = maxTicks;
+        engine.start(NAMES);
+    }
+
+    public static void main(String[] args) throws Exception {
+        int port = BenchSupport.intArg(args, "port", SpectatorServer.DEFAULT_PORT);
+        int clientCount = BenchSupport.intArg(args, "clients", 200);
+        int slowCount = BenchSupport.intArg(args, "slow", 2);
+        int ticks = BenchSupport.intArg(args, "ticks", 3000);
+        int hz = BenchSupport.intArg(args, "hz", GameLoop.DEFAULT_HZ);
+        int stallBirds = BenchSupport.intArg(args, "stall-birds", 64);
+        int stallTicks = BenchSupport.intArg(args, "stall-ticks", 4000);
+        String png = BenchSupport.arg(args, "png");
+
+        SpectatorServer server = SpectatorServer.start(port);
+        InetSocketAddress address = new InetSocketAddress("localhost", port);
+        List<SpectatorClient> clients = new ArrayList<>();
+        for (int i = 0; i < clientCount; i++) {
+            clients.add(SpectatorClient.connect(address));
+        }
+        List<SocketChannel> slow = new ArrayList<>();
+        for (int i = 0; i < slowCount; i++) {
+            SocketChannel channel = SocketChannel.open();
+            channel.setOption(StandardSocketOptions.SO_RCVBUF, 1024);
+            channel.connect(address);
+            slow.add(channel); // Never read from
+        }
+
+        SpectatorCheck check = new SpectatorCheck(server, ticks);
+        Thread selector = findThread("flappyduo-spectators");
+        long selectorCpuBefore = cpuTime(selector);
+        GameLoop loop = new GameLoop(hz, tickTime -> check.step(), () -> {});
+        long start = System.nanoTime();
+        loop.start();
+
+        // All the spectators share this one thread, as headless viewers
+        while (!check.done) {
+            pollAll(clients);
+            Thread.sleep(1);
+        }
+        loop.stop();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        long selectorCpu = cpuTime(selector) - selectorCpuBefore;
+
+        // Let the last ticks arrive, then every spectator must agree with the engine
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (!allCaughtUp(clients, check.engine) && System.nanoTime() < deadline) {
+            pollAll(clients);
+            Thread.sleep(1);
+        }
+        int mismatches = 0;
+        for (SpectatorClient c : clients) {
+            if (!matches(c, check.engine)) mismatches++;
+        }
+
+        long received = 0, keyframes = 0, deltas = 0;
+        for (SpectatorClient c : clients) {
+            received += c.getBytesReceived();
+            keyframes += c.getKeyframes();
+            deltas += c.getDeltas();
+        }
+        System.out.printf("ticks=%d  rounds=%d  spectators=%d (+%d stalled)  %.1f s%n",
+                check.ticks, check.rounds, clientCount, slowCount, seconds);
+        System.out.printf("publish on sim thread: mean %.1f us  p99 %.1f us  max %.1f us%n",
+                check.publish.getMean() / 1e3, check.publish.percentile(0.99) / 1e3, check.publish.getMax() / 1e3);
+        System.out.printf("traffic: %.1f bytes/tick per spectator, %d keyframes + %d deltas received, %.0f KB/s total%n",
+                clientCount > 0 ? (double) received / clientCount / check.ticks : 0, keyframes, deltas,
+                received / seconds / 1024);
+        System.out.printf("selector thread: %.1f ms CPU (%.1f%% of one core)  dropped=%d messages%n",
+                selectorCpu / 1e6, selectorCpu / 1e7 / seconds, server.getMessagesDropped());
+        int measured = Math.max(check.ticks - WARMUP_TICKS, 1);
+        System.out.printf("publish allocated %.2f bytes/tick after warm-up%n", (double) check.allocated / measured);
+
+        if (png != null && !clients.isEmpty()) {
+            render(clients.get(0), new File(png));
+            System.out.println("wrote " + png);
+        }
+
+        for (SpectatorClient c : clients) {
+            c.close();
+        }
+        for (SocketChannel channel : slow) {
+            channel.close();
+        }
+        server.close();
+
+        boolean ok = true;
+        if (mismatches > 0) {
+            System.out.println("FAIL: " + mismatches + " spectators differ from the engine");
+            ok = false;
+        }
+        if (check.allocated > measured) {
+            System.out.println("FAIL: publish allocates on the sim thread");
+            ok = false;
+        }
+        if (!stall(port + 1, stallBirds, stallTicks, slowCount)) ok = false;
+        if (!ok) {
+            System.exit(1);
+        }
+        System.out.println("OK");
+    }
+
+    // A crowded round published as fast as the selector keeps up with, so stalled clients must be dropped
+    private static boolean stall(int port, int birds, int ticks, int slowCount) throws Exception {
+        SpectatorServer server = SpectatorServer.start(port);
+        InetSocketAddress address = new InetSocketAddress("localhost", port);
+        SpectatorClient healthy = SpectatorClient.connect(address);
+        List<SocketChannel> slow = new ArrayList<>();
+        for (int i = 0; i < Math.max(slowCount, 1); i++) {
+            SocketChannel channel = SocketChannel.open();
+            channel.setOption(StandardSocketOptions.SO_RCVBUF, 1024);
+            channel.connect(address);
+            slow.add(channel);
+        }
+
+        String[] names = new String[birds];
+        HeuristicController[] bots = new HeuristicController[birds];
+        for (int i = 0; i < birds; i++) {
+            names[i] = "Bird" + i;
+            bots[i] = new HeuristicController(10 + i % 40);
+        }
+        GameEngine engine = new GameEngine(7);
+        Observation observation = new Observation();
+        engine.start(names);
+        Thread.sleep(100); // Let the server accept everyone before the first keyframe
+        for (int t = 0; t < ticks; t++) {
+            if (engine.isGameOver()) {
+                engine.start(names);
+            } else {
+                for (int i = 0; i < birds; i++) {
+                    engine.observe(i, observation);
+                    if (bots[i].shouldJump(observation)) engine.jump(i);
+                }
+                engine.tick();
+            }
+            server.publish(engine);
+            healthy.poll();
+            if (t % 2 == 1) Thread.sleep(1);
+        }
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (!matches(healthy, engine) && System.nanoTime() < deadline) {
+            healthy.poll();
+            Thread.sleep(1);
+        }
+        boolean match = matches(healthy, engine);
+        long dropped = server.getMessagesDropped();
+        System.out.printf("stall round: %d birds, %d ticks, %.0f KB to the healthy spectator, dropped=%d messages%n",
+                birds, ticks, healthy.getBytesReceived() / 1024.0, dropped);
+
+        healthy.close();
+        for (SocketChannel channel : slow) {
+            channel.close();
+        }
+        server.close();
+
+        if (!match) System.out.println("FAIL: the healthy spectator differs from the engine in the stall round");
+        if (dropped == 0) System.out.println("FAIL: stalled spectators were never dropped");
+        return match && dropped > 0;
+    }
+
+    // Sim thread: bots play, rounds restart as soon as they end, every tick goes out
+    private void step() {
+        if (done) return;
+        if (engine.isGameOver()) {
+            engine.start(NAMES);
+            rounds++;
+        } else {
+            for (int i = 0; i < NAMES.length; i++) {
+                engine.observe(i, observation);
+                if (bots[i].shouldJump(observation)) engine.jump(i);
+            }
+            engine.tick();
+        }
+        long bytes = BenchSupport.allocatedBytes();
+        long start = System.nanoTime();
+        server.publish(engine);
+        publish.record(System.nanoTime() - start);
+        if (ticks >= WARMUP_TICKS) allocated += BenchSupport.allocatedBytes() - bytes;
+        if (++ticks >= maxTicks) done = true;
+    }
+
+    private static void pollAll(List<SpectatorClient> clients) throws IOException {
+        for (int i = 0; i < clients.size(); i++) {
+            clients.get(i).poll();
+        }
+    }
+
+    private static boolean allCaughtUp(List<SpectatorClient> clients, GameEngine engine) {
+        for (SpectatorClient c : clients) {
+            if (!c.isSynced() || c.getTick() != engine.getTicks() || c.getSeed() != engine.getSeed()) return false;
+        }
+        return true;
+    }
+
+    private static boolean matches(SpectatorClient c, GameEngine engine) {
+        if (!c.isSynced() || c.getTick() != engine.getTicks() || c.getSeed() != engine.getSeed()
+                || c.isGameOver() != engine.isGameOver()
+                || c.getBirdCount() != engine.getBirdCount() || c.getPipeCount() != engine.getPipeCount()) {
+            return false;
+        }
+        for (int i = 0; i < engine.getBirdCount(); i++) {
+            if (c.getBirdY(i) != engine.getBirds().getY(i) || c.isDead(i) != engine.getBirds().isDead(i)
+                    || c.getScore(i) != engine.getScore(i)) {
+                return false;
+            }
+        }
+        for (int i = 0; i < engine.getPipeCount(); i++) {
+            Pipe p = engine.getPipe(i);
+            if (c.getPipeX(i) != p.getX() || c.getPipeGapY(i) != p.getGapY()) return false;
+        }
+        return true;
+    }
+
+    // The spectator's view through the normal renderer, as a viewer window would paint it
+    private static void render(SpectatorClient client, File file) throws IOException {
+        FrameState frame = new FrameState();
+        client.capture(frame);
+        BufferedImage image = new BufferedImage(GameEngine.WIDTH, GameEngine.HEIGHT, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2d = image.createGraphics();
+        new GameRenderer().render(g2d, frame, 1f);
+        g2d.dispose();
+        ImageIO.write(image, "png", file);
+    }
+
+    private static Thread findThread(String name) {
+        for (Thread t : Thread.getAllStackTraces().keySet()) {
+            if (t.getName().equals(name)) return t;
+        }
+        return null;
+    }
+
+    // CPU time the thread has used so far, or 0 if the JVM can't tell
+    private static long cpuTime(Thread t) {
+        if (t == null) return 0;
+        return Math.max(0, ManagementFactory.getThreadMXBean().getThreadCpuTime(t.getId()));
+    }
+}
@@ -0,0 +1,93 @@
+package com.flappyduo.bench;
+
+import com.flappyduo.GameEngine;
+
+/**
+ * Measures the headless tick path: ticks per second and bytes allocated per tick
+ * across pipe, particle and bird counts, plus the cost of a single collision pass.
+ *
+ * <pre>java com.flappyduo.bench.TickBenchmark --pipes=0,4,16,64 --particles=0,500,5000 --birds=2,8,1000</pre>
+ */
+public class TickBenchmark {
+
+    // Birds jump at the start of each batch, so they stay airborne for this many ticks
+    private static final int BATCH_TICKS = 20;
+
+    public static void main(String[] args) {
+        int[] pipeCounts = BenchSupport.intListArg(args, "pipes", 0, 4, 16, 64);
+        int[] particleCounts = BenchSupport.intListArg(args, "particles", 0, 500, 5000);
+        int[] birdCounts = BenchSupport.intListArg(args, "birds", 2, 8, 1000);
+        int warmup = BenchSupport.intArg(args, "warmup-ms", 1000);
+        int measure = BenchSupport.intArg(args, "measure-ms", 2000);
+
+        System.out.printf("%-6s %-6s %-9s %14s %12s %12s %14s%n",
+                "birds", "pipes", "particles", "ticks/s", "ns/tick", "B/tick", "collide ns");
+        for (int birds : birdCounts) {
+            for (int pipes : pipeCounts) {
+                for (int particles : particleCounts) {
+                    Scenario scenario = new Scenario(birds, pipes, particles);
+                    BenchSupport.Result tick = BenchSupport.measure(scenario.tick(), warmup, measure);
+                    BenchSupport.Result collide = BenchSupport.measure(scenario.collide(), warmup / 2, measure / 2);
+                    System.out.printf("%-6d %-6d %-9d %,14.0f %,12.1f %,12.1f %,14.1f%n",
+                            birds, pipes, particles, tick.opsPerSecond(), tick.nanosPerOp,
+                            tick.bytesPerOp, collide.nanosPerOp);
+                }
+            }
+        }
+    }
+
+    // A fresh round with birds in the open and pipes queued up to the right of them
+    static final class Scenario {
+        final GameEngine engine = new GameEngine(42);
+        final String[] names;
+        final int pipes;
+        final int particles;
+
+        Scenario(int birds, int pipes, int particles) {
+            this.names = new String[birds];
+            for (int i = 0; i < birds; i++) {
+                names[i] = "Bot " + i;
+            }
+            this.pipes = pipes;
+            this.particles = particles;
+        }
+
+        void reset() {
+            engine.start(names);
+            for (int i = 0; i < pipes; i++) {
+                engine.addPipe(GameEngine.BIRD_X + 150 + i * 60, GameEngine.HEIGHT / 2 - 75);
+            }
+            engine.spawnParticles(GameEngine.WIDTH / 2, GameEngine.HEIGHT / 2, 0, particles);
+        }
+
+        BenchSupport.Case tick() {
+            return new BenchSupport.Case() {
+                @Override
+                public void setup() {
+                    reset();
+                }
+
+                @Override
+                public int run() {
+                    for (int b = 0; b < names.length; b++) {
+                        engine.jump(b);
+                    }
+                    for (int t = 0; t < BATCH_TICKS; t++) {
+                        engine.tick();
+                    }
+                    return BATCH_TICKS;
+                }
+            };
+        }
+
+        BenchSupport.Case collide() {
+            reset();
+            return () -> {
+                for (int i = 0; i < 1000; i++) {
+                    engine.checkCollisions();
+                }
+                return 1000;
+            };
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.flappyduo.ecs;
+
+import java.util.Arrays;
+
+/**
+ * Every entity with exactly one set of components, stored in chunks. All
+ * chunks but the last are full: removing an entity moves the archetype's last
+ * row into the hole. Emptied chunks are kept for reuse, so entities can come
+ * and go every tick without allocating once the high-water mark is reached.
+ */
+public final class Archetype {
+
+    final int id;
+    final long mask;
+    final Component[] components;
+    final int[] floatIds; // Ids of the float components, then of the int ones
+    final int[] intIds;
+    private Chunk[] chunks = new Chunk[1];
+    private int allocated; // Chunks created, including empty ones kept for reuse
+    private int chunkCount; // Chunks holding entities
+    private int size;
+
+    Archetype(int id, long mask, Component[] components) {
+        this.id = id;
+        this.mask = mask;
+        this.components = components;
+        int floats = 0;
+        for (Component c : components) {
+            if (c.isFloat) floats++;
+        }
+        floatIds = new int[floats];
+        intIds = new int[components.length - floats];
+        for (int i = 0, f = 0, n = 0; i < components.length; i++) {
+            if (components[i].isFloat) {
+                floatIds[f++] = components[i].id;
+            } else {
+                intIds[n++] = components[i].id;
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int chunkCount() {
+        return chunkCount;
+    }
+
+    public Chunk chunk(int i) {
+        return chunks[i];
+    }
+
+    public boolean has(Component c) {
+        return (mask & c.bit()) != 0;
+    }
+
+    // Appends a zeroed row for the entity; returns its slot, chunk * CAPACITY + row
+    int add(int entity) {
+        Chunk last = chunkCount > 0 ? chunks[chunkCount - 1] : null;
+        if (last == null || last.size == Chunk.CAPACITY) {
+            if (chunkCount == allocated) {
+                if (allocated == chunks.length) chunks = Arrays.copyOf(chunks, allocated * 2);
+                chunks[allocated++] = new Chunk(this);
+            }
+            last = chunks[chunkCount++];
+        }
+        int row = last.size++;
+        last.entities[row] = entity;
+        last.clearRow(row);
+        size++;
+        return (chunkCount - 1) << Chunk.SHIFT | row;
+    }
+
+    // Fills the slot with the last row; returns the entity that moved into it, or -1 if none did
+    int remove(int slot) {
+        Chunk hole = chunks[slot >>> Chunk.SHIFT];
+        int row = slot & Chunk.ROW_MASK;
+        Chunk last = chunks[chunkCount - 1];
+        int lastRow = --last.size;
+        size--;
+        int moved = -1;
+        if (last != hole || lastRow != row) {
+            last.copyRow(lastRow, hole, row);
+            moved = last.entities[lastRow];
+            hole.entities[row] = moved;
+        }
+        if (last.size == 0) chunkCount--;
+        return moved;
+    }
+
+    void clear() {
+        for (int c = 0; c < chunkCount; c++) {
+            chunks[c].size = 0;
+        }
+        chunkCount = 0;
+        size = 0;
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(components);
+    }
+}
@@ -0,0 +1,80 @@
+package com.flappyduo.ecs;
+
+/**
+ * Up to {@link #CAPACITY} entities of one archetype, one primitive array per
+ * component. Live rows are always packed at the front, so a system reads a
+ * component by taking its array once and looping up to {@link #size()}.
+ */
+public final class Chunk {
+
+    static final int SHIFT = 10;
+    public static final int CAPACITY = 1 << SHIFT;
+    static final int ROW_MASK = CAPACITY - 1;
+
+    private final Archetype archetype;
+    // Indexed by component id; null for components the archetype doesn't have
+    private final float[][] floats = new float[Component.MAX][];
+    private final int[][] ints = new int[Component.MAX][];
+    final int[] entities = new int[CAPACITY];
+    int size;
+
+    Chunk(Archetype archetype) {
+        this.archetype = archetype;
+        for (Component c : archetype.components) {
+            if (c.isFloat) {
+                floats[c.id] = new float[CAPACITY];
+            } else {
+                ints[c.id] = new int[CAPACITY];
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Handle of the entity in the given row
+    public int entity(int row) {
+        return entities[row];
+    }
+
+    public float[] floats(Component c) {
+        float[] column = floats[c.id];
+        if (column == null) throw new IllegalArgumentException(archetype + " has no float component " + c);
+        return column;
+    }
+
+    public int[] ints(Component c) {
+        int[] column = ints[c.id];
+        if (column == null) throw new IllegalArgumentException(archetype + " has no int component " + c);
+        return column;
+    }
+
+    public Archetype getArchetype() {
+        return archetype;
+    }
+
+    // Copies every component of a row into a row of another chunk of the same archetype
+    void copyRow(int from, Chunk to, int row) {
+        for (int id : archetype.floatIds) {
+            to.floats[id][row] = floats[id][from];
+        }
+        for (int id : archetype.intIds) {
+            to.ints[id][row] = ints[id][from];
+        }
+    }
+
+    void clearRow(int row) {
+        for (int id : archetype.floatIds) {
+            floats[id][row] = 0;
+        }
+        for (int id : archetype.intIds) {
+            ints[id][row] = 0;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return archetype + " chunk, " + size + " rows";
+    }
+}
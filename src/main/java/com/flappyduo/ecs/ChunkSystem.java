@@ -0,0 +1,12 @@
+package com.flappyduo.ecs;
+
+/**
+ * Work done on every chunk a {@link Query} matches. Runs while the query
+ * iterates, so it must not create or destroy entities itself; it records them
+ * in a {@link CommandBuffer} to be applied afterwards.
+ */
+@FunctionalInterface
+public interface ChunkSystem {
+
+    void update(Chunk chunk);
+}
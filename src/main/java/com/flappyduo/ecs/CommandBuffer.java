@@ -0,0 +1,106 @@
+package com.flappyduo.ecs;
+
+import java.util.Arrays;
+
+/**
+ * Entities to create and destroy once the systems running now are done.
+ * Spawns are staged with their component values in columns of their own, and
+ * {@link World#apply} copies them into chunks in one go. Its arrays only
+ * grow, so a buffer reused every tick stops allocating.
+ */
+public final class CommandBuffer {
+
+    private int[] destroyed = new int[64];
+    private int destroyCount;
+
+    private Archetype[] spawned = new Archetype[64];
+    private int spawnCount;
+    private final float[][] floats = new float[Component.MAX][];
+    private final int[][] ints = new int[Component.MAX][];
+
+    // Destroying an entity twice, or one that is already gone, is harmless
+    public void destroy(int entity) {
+        if (destroyCount == destroyed.length) destroyed = Arrays.copyOf(destroyed, destroyCount * 2);
+        destroyed[destroyCount++] = entity;
+    }
+
+    // Stages an entity with all components zero; returns its index for the setters
+    public int spawn(Archetype archetype) {
+        if (spawnCount == spawned.length) grow();
+        int i = spawnCount++;
+        spawned[i] = archetype;
+        for (Component c : archetype.components) {
+            if (c.isFloat) {
+                floatColumn(c)[i] = 0;
+            } else {
+                intColumn(c)[i] = 0;
+            }
+        }
+        return i;
+    }
+
+    public void setFloat(int spawn, Component c, float value) {
+        floatColumn(c)[spawn] = value;
+    }
+
+    public void setInt(int spawn, Component c, int value) {
+        intColumn(c)[spawn] = value;
+    }
+
+    public boolean isEmpty() {
+        return destroyCount == 0 && spawnCount == 0;
+    }
+
+    int destroyCount() {
+        return destroyCount;
+    }
+
+    int destroyed(int i) {
+        return destroyed[i];
+    }
+
+    int spawnCount() {
+        return spawnCount;
+    }
+
+    Archetype spawned(int i) {
+        return spawned[i];
+    }
+
+    float stagedFloat(int spawn, Component c) {
+        return floats[c.id][spawn];
+    }
+
+    int stagedInt(int spawn, Component c) {
+        return ints[c.id][spawn];
+    }
+
+    void clear() {
+        Arrays.fill(spawned, 0, spawnCount, null);
+        destroyCount = 0;
+        spawnCount = 0;
+    }
+
+    private float[] floatColumn(Component c) {
+        if (!c.isFloat) throw new IllegalArgumentException(c + " is not a float component");
+        float[] column = floats[c.id];
+        if (column == null) column = floats[c.id] = new float[spawned.length];
+        return column;
+    }
+
+    private int[] intColumn(Component c) {
+        if (c.isFloat) throw new IllegalArgumentException(c + " is not an int component");
+        int[] column = ints[c.id];
+        if (column == null) column = ints[c.id] = new int[spawned.length];
+        return column;
+    }
+
+    private void grow() {
+        int cap = spawned.length * 2;
+        spawned = Arrays.copyOf(spawned, cap);
+        for (int i = 0; i < Component.MAX; i++) {
+            if (floats[i] != null) floats[i] = Arrays.copyOf(floats[i], cap);
+            if (ints[i] != null) ints[i] = Arrays.copyOf(ints[i], cap);
+        }
+    }
+}
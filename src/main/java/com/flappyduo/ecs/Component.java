@@ -0,0 +1,53 @@
+package com.flappyduo.ecs;
+
+/**
+ * One primitive column of entity data, either float or int. Components are
+ * declared once, as constants, and numbered as they are declared, so an
+ * archetype can be keyed by a bit mask; at most {@value #MAX} exist per JVM.
+ */
+public final class Component {
+
+    public static final int MAX = 64;
+
+    private static int declared;
+
+    final int id;
+    final boolean isFloat;
+    private final String name;
+
+    private Component(String name, boolean isFloat) {
+        this.id = nextId(name);
+        this.isFloat = isFloat;
+        this.name = name;
+    }
+
+    public static Component ofFloat(String name) {
+        return new Component(name, true);
+    }
+
+    public static Component ofInt(String name) {
+        return new Component(name, false);
+    }
+
+    private static synchronized int nextId(String name) {
+        if (declared == MAX) throw new IllegalStateException("No room for component " + name + ": " + MAX + " already declared");
+        return declared++;
+    }
+
+    long bit() {
+        return 1L << id;
+    }
+
+    public boolean isFloat() {
+        return isFloat;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,42 @@
+package com.flappyduo.ecs;
+
+import java.util.Arrays;
+
+/**
+ * Every archetype that has a given set of components, kept up to date as the
+ * world creates archetypes. Iterating visits their chunks in order.
+ */
+public final class Query {
+
+    private final long mask;
+    private Archetype[] matching = new Archetype[2];
+    private int count;
+
+    Query(long mask) {
+        this.mask = mask;
+    }
+
+    void offer(Archetype a) {
+        if ((a.mask & mask) != mask) return;
+        if (count == matching.length) matching = Arrays.copyOf(matching, count * 2);
+        matching[count++] = a;
+    }
+
+    public void forEach(ChunkSystem system) {
+        for (int a = 0; a < count; a++) {
+            Archetype archetype = matching[a];
+            for (int c = 0; c < archetype.chunkCount(); c++) {
+                system.update(archetype.chunk(c));
+            }
+        }
+    }
+
+    // Entities matched right now
+    public int size() {
+        int n = 0;
+        for (int a = 0; a < count; a++) {
+            n += matching[a].size();
+        }
+        return n;
+    }
+}
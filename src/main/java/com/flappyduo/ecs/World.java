@@ -0,0 +1,189 @@
+package com.flappyduo.ecs;
+
+import java.util.Arrays;
+
+/**
+ * A small entity-component store. Entities are int handles; each one lives in
+ * the {@link Archetype} for its exact set of components, as a row of that
+ * archetype's chunked primitive arrays. Systems run over {@link Query}s chunk
+ * by chunk, so the hot loops only touch the arrays they need, and entities
+ * they create or destroy go through a {@link CommandBuffer} applied between
+ * systems. Destroying fills the hole from the end and freed handles are
+ * reused, so churn costs a few array writes and no garbage.
+ *
+ * <p>A handle carries a generation, so a handle kept past its entity's
+ * destruction is recognised as stale rather than naming whatever reused the
+ * slot. Not thread-safe: a world belongs to the thread that ticks it.
+ */
+public final class World {
+
+    private static final int INDEX_BITS = 20;
+    public static final int MAX_ENTITIES = 1 << INDEX_BITS;
+    private static final int INDEX_MASK = MAX_ENTITIES - 1;
+    private static final int GENERATION_MASK = (1 << (31 - INDEX_BITS)) - 1; // Keeps handles positive
+
+    private Archetype[] archetypes = new Archetype[2];
+    private int archetypeCount;
+    private Query[] queries = new Query[4];
+    private int queryCount;
+
+    // Per entity index
+    private int[] generation = new int[64];
+    private int[] archetypeOf = new int[64]; // -1 while the index is free
+    private int[] slotOf = new int[64]; // chunk * Chunk.CAPACITY + row within the archetype
+    private int[] free = new int[64];
+    private int freeCount;
+    private int used; // Indices handed out so far
+    private int size;
+
+    // The archetype for exactly these components, created on first use
+    public Archetype archetype(Component... components) {
+        long mask = 0;
+        for (Component c : components) {
+            mask |= c.bit();
+        }
+        if (Long.bitCount(mask) != components.length) {
+            throw new IllegalArgumentException("Duplicate component in " + Arrays.toString(components));
+        }
+        for (int i = 0; i < archetypeCount; i++) {
+            if (archetypes[i].mask == mask) return archetypes[i];
+        }
+        if (archetypeCount == archetypes.length) archetypes = Arrays.copyOf(archetypes, archetypeCount * 2);
+        Archetype a = new Archetype(archetypeCount, mask, components.clone());
+        archetypes[archetypeCount++] = a;
+        for (int i = 0; i < queryCount; i++) {
+            queries[i].offer(a);
+        }
+        return a;
+    }
+
+    // Every entity that has at least these components, including archetypes made later
+    public Query query(Component... components) {
+        long mask = 0;
+        for (Component c : components) {
+            mask |= c.bit();
+        }
+        Query q = new Query(mask);
+        for (int i = 0; i < archetypeCount; i++) {
+            q.offer(archetypes[i]);
+        }
+        if (queryCount == queries.length) queries = Arrays.copyOf(queries, queryCount * 2);
+        queries[queryCount++] = q;
+        return q;
+    }
+
+    // New entity with all components zero; not while a query over its archetype is iterating
+    public int create(Archetype archetype) {
+        int index = allocate();
+        int entity = generation[index] << INDEX_BITS | index;
+        archetypeOf[index] = archetype.id;
+        slotOf[index] = archetype.add(entity);
+        size++;
+        return entity;
+    }
+
+    // Ignores handles that are already stale
+    public void destroy(int entity) {
+        if (!isAlive(entity)) return;
+        int index = entity & INDEX_MASK;
+        int moved = archetypes[archetypeOf[index]].remove(slotOf[index]);
+        if (moved >= 0) slotOf[moved & INDEX_MASK] = slotOf[index];
+        release(index);
+    }
+
+    public boolean isAlive(int entity) {
+        int index = entity & INDEX_MASK;
+        return entity >= 0 && index < used && archetypeOf[index] >= 0 && generation[index] == entity >>> INDEX_BITS;
+    }
+
+    // Destroys everything the buffer names, then creates what it staged, and empties it
+    public void apply(CommandBuffer commands) {
+        for (int i = 0; i < commands.destroyCount(); i++) {
+            destroy(commands.destroyed(i));
+        }
+        for (int i = 0; i < commands.spawnCount(); i++) {
+            Archetype a = commands.spawned(i);
+            int entity = create(a);
+            Chunk chunk = chunkOf(entity);
+            int row = rowOf(entity);
+            for (Component c : a.components) {
+                if (c.isFloat) {
+                    chunk.floats(c)[row] = commands.stagedFloat(i, c);
+                } else {
+                    chunk.ints(c)[row] = commands.stagedInt(i, c);
+                }
+            }
+        }
+        commands.clear();
+    }
+
+    // Destroys every entity; archetypes, queries and chunks stay for reuse
+    public void clear() {
+        for (int a = 0; a < archetypeCount; a++) {
+            Archetype archetype = archetypes[a];
+            for (int c = 0; c < archetype.chunkCount(); c++) {
+                Chunk chunk = archetype.chunk(c);
+                for (int row = 0; row < chunk.size; row++) {
+                    release(chunk.entities[row] & INDEX_MASK);
+                }
+            }
+            archetype.clear();
+        }
+    }
+
+    // Chunk holding a live entity; with rowOf, for writing several components at once
+    public Chunk chunkOf(int entity) {
+        int index = check(entity);
+        return archetypes[archetypeOf[index]].chunk(slotOf[index] >>> Chunk.SHIFT);
+    }
+
+    public int rowOf(int entity) {
+        return slotOf[check(entity)] & Chunk.ROW_MASK;
+    }
+
+    public float getFloat(int entity, Component c) {
+        return chunkOf(entity).floats(c)[rowOf(entity)];
+    }
+
+    public void setFloat(int entity, Component c, float value) {
+        chunkOf(entity).floats(c)[rowOf(entity)] = value;
+    }
+
+    public int getInt(int entity, Component c) {
+        return chunkOf(entity).ints(c)[rowOf(entity)];
+    }
+
+    public void setInt(int entity, Component c, int value) {
+        chunkOf(entity).ints(c)[rowOf(entity)] = value;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private int check(int entity) {
+        if (!isAlive(entity)) throw new IllegalArgumentException("No such entity: " + entity);
+        return entity & INDEX_MASK;
+    }
+
+    // Reuses the most recently freed index, whose table entries are likely still cached
+    private int allocate() {
+        if (freeCount > 0) return free[--freeCount];
+        if (used == MAX_ENTITIES) throw new IllegalStateException("World is full: " + MAX_ENTITIES + " entities");
+        if (used == generation.length) {
+            int cap = Math.min(MAX_ENTITIES, used * 2);
+            generation = Arrays.copyOf(generation, cap);
+            archetypeOf = Arrays.copyOf(archetypeOf, cap);
+            slotOf = Arrays.copyOf(slotOf, cap);
+            free = Arrays.copyOf(free, cap);
+        }
+        return used++;
+    }
+
+    private void release(int index) {
+        archetypeOf[index] = -1;
+        generation[index] = (generation[index] + 1) & GENERATION_MASK;
+        free[freeCount++] = index;
+        size--;
+    }
+}
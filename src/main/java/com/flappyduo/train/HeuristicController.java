@@ -0,0 +1,25 @@
+package com.flappyduo.train;
+
+import com.flappyduo.BirdController;
+import com.flappyduo.Flock;
+import com.flappyduo.Observation;
+
+/**
+ * Baseline bot: flaps whenever the next tick would carry the bird's bottom
+ * edge within {@code margin} pixels of the bottom of the next gap. The margin
+ * is the knob to tune.
+ */
+public class HeuristicController implements BirdController {
+
+    private final int margin;
+
+    public HeuristicController(int margin) {
+        this.margin = margin;
+    }
+
+    @Override
+    public boolean shouldJump(Observation o) {
+        int nextY = o.birdY + o.velocity + Flock.GRAVITY;
+        return o.velocity >= 0 && nextY + Flock.SIZE > o.gapBottom - margin;
+    }
+}
@@ -0,0 +1,187 @@
+package com.flappyduo.train;
+
+import com.flappyduo.BirdController;
+import com.flappyduo.GameEngine;
+import com.flappyduo.Observation;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Supplier;
+
+/**
+ * Headless training mode: plays many games on a fork-join pool, with bots
+ * deciding every jump. Each game has its own engine seeded from the base seed
+ * and the game's index, so results are identical whatever the thread count.
+ *
+ * <pre>java com.flappyduo.train.Trainer --games=20000 --threads=1,2,4,8 --birds=1 --margin=20</pre>
+ */
+public class Trainer {
+
+    // Games a task plays itself instead of splitting further
+    private static final int BATCH_GAMES = 32;
+
+    private final Supplier<BirdController> controllers;
+    private final String[] names;
+    private final int maxTicks;
+    private final long baseSeed;
+
+    public Trainer(Supplier<BirdController> controllers, int birdsPerGame, int maxTicks, long baseSeed) {
+        this.controllers = controllers;
+        this.names = new String[birdsPerGame];
+        for (int i = 0; i < birdsPerGame; i++) {
+            names[i] = "Bot " + i;
+        }
+        this.maxTicks = maxTicks;
+        this.baseSeed = baseSeed;
+    }
+
+    /** Outcome of one {@link #run}, indexed by game. */
+    public static final class Results {
+        public final int[] bestScore; // Highest score of any bird in the game
+        public final int[] ticks;
+        public long nanos;
+
+        Results(int games) {
+            bestScore = new int[games];
+            ticks = new int[games];
+        }
+
+        public int games() {
+            return ticks.length;
+        }
+
+        public double gamesPerSecond() {
+            return games() * 1e9 / nanos;
+        }
+
+        public double meanScore() {
+            return Arrays.stream(bestScore).average().orElse(0);
+        }
+
+        public int maxScore() {
+            return Arrays.stream(bestScore).max().orElse(0);
+        }
+    }
+
+    public Results run(ForkJoinPool pool, int games) {
+        Results results = new Results(games);
+        long start = System.nanoTime();
+        pool.invoke(new Batch(results, 0, games));
+        results.nanos = System.nanoTime() - start;
+        return results;
+    }
+
+    // Splits a range of games in halves until it is small enough to play directly
+    private final class Batch extends RecursiveAction {
+        private final Results results;
+        private final int from, to;
+
+        Batch(Results results, int from, int to) {
+            this.results = results;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= BATCH_GAMES) {
+                for (int g = from; g < to; g++) {
+                    play(g, results);
+                }
+            } else {
+                int mid = (from + to) >>> 1;
+                invokeAll(new Batch(results, from, mid), new Batch(results, mid, to));
+            }
+        }
+    }
+
+    // One game from start to game over (or maxTicks); writes only its own result slots
+    private void play(int game, Results results) {
+        GameEngine engine = GameEngine.headless(seedFor(game));
+        engine.start(names);
+
+        BirdController[] bots = new BirdController[names.length];
+        for (int i = 0; i < bots.length; i++) {
+            bots[i] = controllers.get();
+        }
+        Observation observation = new Observation();
+
+        while (!engine.isGameOver() && engine.getTicks() < maxTicks) {
+            for (int i = 0; i < bots.length; i++) {
+                if (engine.getBirds().isDead(i)) continue;
+                engine.observe(i, observation);
+                if (bots[i].shouldJump(observation)) engine.jump(i);
+            }
+            engine.tick();
+        }
+
+        int best = 0;
+        for (int i = 0; i < names.length; i++) {
+            best = Math.max(best, engine.getScore(i));
+        }
+        results.bestScore[game] = best;
+        results.ticks[game] = engine.getTicks();
+    }
+
+    private long seedFor(int game) {
+        return baseSeed + game * 0x9E3779B97F4A7C15L;
+    }
+
+    public static void main(String[] args) {
+        int games = intArg(args, "games", 10000);
+        int birds = intArg(args, "birds", 1);
+        int maxTicks = intArg(args, "max-ticks", 20000);
+        int margin = intArg(args, "margin", 20);
+        long seed = intArg(args, "seed", 1);
+        int[] threadCounts = threadsArg(args);
+
+        Trainer trainer = new Trainer(() -> new HeuristicController(margin), birds, maxTicks, seed);
+
+        // Warm up the JIT on a slice of the same games
+        ForkJoinPool warmupPool = new ForkJoinPool(threadCounts[threadCounts.length - 1]);
+        trainer.run(warmupPool, Math.max(1, games / 10));
+        warmupPool.shutdown();
+
+        System.out.printf("%-8s %12s %9s %11s %10s %s%n", "threads", "games/s", "speedup", "mean score", "max score", "ticks/game");
+        Results first = null;
+        for (int threads : threadCounts) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            Results r = trainer.run(pool, games);
+            pool.shutdown();
+            if (first == null) first = r;
+            if (!Arrays.equals(first.bestScore, r.bestScore)) {
+                System.out.println("Results differ from the first run; a game is not deterministic");
+            }
+            System.out.printf("%-8d %,12.0f %8.2fx %11.2f %10d %.0f%n", threads, r.gamesPerSecond(),
+                    r.gamesPerSecond() / first.gamesPerSecond(), r.meanScore(), r.maxScore(),
+                    Arrays.stream(r.ticks).average().orElse(0));
+        }
+    }
+
+    private static int intArg(String[] args, String name, int def) {
+        String prefix = "--" + name + "=";
+        for (String a : args) {
+            if (a.startsWith(prefix)) return Integer.parseInt(a.substring(prefix.length()));
+        }
+        return def;
+    }
+
+    // Explicit list, or 1, 2, 4, ... up to the number of cores
+    private static int[] threadsArg(String[] args) {
+        for (String a : args) {
+            if (a.startsWith("--threads=")) {
+                return Arrays.stream(a.substring("--threads=".length()).split(","))
+                        .mapToInt(s -> Integer.parseInt(s.trim())).toArray();
+            }
+        }
+        int cores = Runtime.getRuntime().availableProcessors();
+        int[] counts = new int[32 - Integer.numberOfLeadingZeros(cores)];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = Math.min(cores, 1 << i);
+        }
+        if (counts[counts.length - 1] != cores) counts = Arrays.copyOf(counts, counts.length + 1);
+        counts[counts.length - 1] = cores;
+        return counts;
+    }
+}